@@ -0,0 +1,86 @@
+package com.harmony.flipper.backtest;
+
+import com.harmony.flipper.data.Table;
+import com.harmony.flipper.data.Time;
+import com.harmony.flipper.testkit.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A month of /5m buckets for the whole item universe replayed through {@link MarginStrategy}, on one core
+ * and on the common pool.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BacktestBenchmark {
+
+    @Param({"4000"})
+    public int itemCount;
+
+    @Param({"30"})
+    public int days;
+
+    private History history;
+    private Strategy strategy;
+    private ForkJoinPool single;
+
+    @Setup
+    public void setUp() {
+        int buckets = (int) (days * 86_400L / Time.Step.FIVE_MINUTES.getSeconds());
+        int rows = itemCount * buckets;
+        int[] ids = new int[itemCount];
+        int[] limits = new int[itemCount];
+        int[] offsets = new int[itemCount + 1];
+        long[] timestamp = new long[rows];
+        int[] high = new int[rows];
+        int[] low = new int[rows];
+        long[] highVolume = new long[rows];
+        long[] lowVolume = new long[rows];
+        SplittableRandom random = new SplittableRandom(7L);
+        long start = Fixtures.DEFAULT_TIMESTAMP - days * 86_400L;
+        for (int item = 0; item < itemCount; item++) {
+            ids[item] = Fixtures.itemId(item);
+            limits[item] = random.nextInt(10) == 0 ? Table.MISSING : 100 + random.nextInt(10_000);
+            offsets[item + 1] = offsets[item] + buckets;
+            int price = 10 + random.nextInt(100_000);
+            for (int b = 0, row = offsets[item]; b < buckets; b++, row++) {
+                price = Math.max(1, price + random.nextInt(-price / 100 - 1, price / 100 + 2));
+                timestamp[row] = start + b * Time.Step.FIVE_MINUTES.getSeconds();
+                low[row] = price;
+                high[row] = price + 1 + random.nextInt(Math.max(1, price / 20));
+                lowVolume[row] = random.nextInt(200);
+                highVolume[row] = random.nextInt(200);
+            }
+        }
+        history = History.of(ids, limits, offsets, timestamp, high, low, highVolume, lowVolume);
+        strategy = new MarginStrategy(5, 10_000);
+        single = new ForkJoinPool(1);
+    }
+
+    @Benchmark
+    public Backtester.Result singleThread() {
+        return new Backtester().run(history, strategy, single);
+    }
+
+    @Benchmark
+    public Backtester.Result commonPool() {
+        return new Backtester().run(history, strategy);
+    }
+}
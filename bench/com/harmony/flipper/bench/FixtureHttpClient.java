@@ -0,0 +1,203 @@
+package com.harmony.flipper.bench;
+
+import com.harmony.flipper.testkit.Fixtures;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * In-memory {@link HttpClient} that answers every request from {@link Fixtures}, so the transport's
+ * decode path can be measured without sockets. Bodies are pushed through the caller's body handler
+ * exactly as the real client would.
+ */
+public final class FixtureHttpClient extends HttpClient {
+
+    private static final HttpHeaders JSON_HEADERS = HttpHeaders.of(
+            Map.of("Content-Type", List.of("application/json")), (name, value) -> true);
+    private static final HttpHeaders EMPTY_HEADERS = HttpHeaders.of(Map.of(), (name, value) -> true);
+
+    private final Fixtures fixtures;
+
+    public FixtureHttpClient(Fixtures fixtures) {
+        this.fixtures = fixtures;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        URI uri = request.uri();
+        String path = uri.getPath();
+        byte[] body = fixtures.forPath(path.substring(path.lastIndexOf('/') + 1), uri.getRawQuery());
+        int status = body == null ? 404 : 200;
+        HttpHeaders headers = body == null ? EMPTY_HEADERS : JSON_HEADERS;
+
+        HttpResponse.BodySubscriber<T> subscriber = handler.apply(new Info(status, headers));
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        if (body != null) {
+            subscriber.onNext(List.of(ByteBuffer.wrap(body)));
+        }
+        subscriber.onComplete();
+        T decoded = subscriber.getBody().toCompletableFuture().join();
+        return new Response<>(request, status, headers, decoded);
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        return CompletableFuture.completedFuture(send(request, handler));
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                            HttpResponse.BodyHandler<T> handler,
+                                                            HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        return sendAsync(request, handler);
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Redirect followRedirects() {
+        return Redirect.NEVER;
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy() {
+        return Optional.empty();
+    }
+
+    @Override
+    public SSLContext sslContext() {
+        return null;
+    }
+
+    @Override
+    public SSLParameters sslParameters() {
+        return new SSLParameters();
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Version version() {
+        return Version.HTTP_1_1;
+    }
+
+    @Override
+    public Optional<Executor> executor() {
+        return Optional.empty();
+    }
+
+    private static final class Info implements HttpResponse.ResponseInfo {
+        private final int status;
+        private final HttpHeaders headers;
+
+        private Info(int status, HttpHeaders headers) {
+            this.status = status;
+            this.headers = headers;
+        }
+
+        @Override
+        public int statusCode() {
+            return status;
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return headers;
+        }
+
+        @Override
+        public Version version() {
+            return Version.HTTP_1_1;
+        }
+    }
+
+    private static final class Response<T> implements HttpResponse<T> {
+        private final HttpRequest request;
+        private final int status;
+        private final HttpHeaders headers;
+        private final T body;
+
+        private Response(HttpRequest request, int status, HttpHeaders headers, T body) {
+            this.request = request;
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        @Override
+        public int statusCode() {
+            return status;
+        }
+
+        @Override
+        public HttpRequest request() {
+            return request;
+        }
+
+        @Override
+        public Optional<HttpResponse<T>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return headers;
+        }
+
+        @Override
+        public T body() {
+            return body;
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+        @Override
+        public Version version() {
+            return Version.HTTP_1_1;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.harmony.flipper.bench;
+
+import com.google.gson.GsonBuilder;
+import com.harmony.flipper.data.ItemMapping;
+import com.harmony.flipper.data.Time;
+import com.harmony.flipper.net.transport.OsrsWikiTransport;
+import com.harmony.flipper.net.transport.OsrsWikiTransport.RawAggregateResponse;
+import com.harmony.flipper.net.transport.OsrsWikiTransport.RawLatestResponse;
+import com.harmony.flipper.net.transport.OsrsWikiTransport.RawTimeseriesResponse;
+import com.harmony.flipper.net.transport.OsrsWikiTransport.RawVolumeResponse;
+import com.harmony.flipper.net.transport.RetryPolicy;
+import com.harmony.flipper.testkit.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of each endpoint's payload through {@link OsrsWikiTransport}, from body bytes to the raw
+ * response objects.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransportDecodeBenchmark {
+
+    @Param({"4000"})
+    public int itemCount;
+
+    private OsrsWikiTransport transport;
+    private Map<String, String> timeseriesParams;
+
+    @Setup
+    public void setUp() {
+        transport = new OsrsWikiTransport(new FixtureHttpClient(new Fixtures(itemCount)),
+                new GsonBuilder().serializeNulls().create(),
+                URI.create("http://fixtures.invalid/api/v1/osrs/"),
+                "HarmonyFlipper-bench",
+                Duration.ofSeconds(15),
+                null,
+                RetryPolicy.none());
+        timeseriesParams = new LinkedHashMap<>();
+        timeseriesParams.put("id", Integer.toString(Fixtures.itemId(0)));
+        timeseriesParams.put("timestep", Time.Step.FIVE_MINUTES.getValue());
+    }
+
+    @Benchmark
+    public RawLatestResponse latest() {
+        return transport.fetchLatest();
+    }
+
+    @Benchmark
+    public RawAggregateResponse fiveMinute() {
+        return transport.fetchAggregate("5m");
+    }
+
+    @Benchmark
+    public RawVolumeResponse volumes() {
+        return transport.fetchVolumes();
+    }
+
+    @Benchmark
+    public List<ItemMapping> mapping() {
+        return transport.fetchMapping();
+    }
+
+    @Benchmark
+    public RawTimeseriesResponse timeseries() {
+        return transport.fetchTimeseries(timeseriesParams);
+    }
+}
@@ -0,0 +1,96 @@
+package com.harmony.flipper.bench;
+
+import com.google.gson.GsonBuilder;
+import com.harmony.flipper.data.Time;
+import com.harmony.flipper.net.transport.OsrsWikiTransport;
+import com.harmony.flipper.net.transport.OsrsWikiTransport.RawAggregateResponse;
+import com.harmony.flipper.net.transport.OsrsWikiTransport.RawLatestResponse;
+import com.harmony.flipper.net.transport.OsrsWikiTransport.RawTimeseriesResponse;
+import com.harmony.flipper.net.transport.RetryPolicy;
+import com.harmony.flipper.testkit.Fixtures;
+import com.harmony.flipper.testkit.MockWikiServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full round trips through {@link OsrsWikiTransport} against a local {@link MockWikiServer}: sockets, gzip,
+ * conditional requests and retries, with server latency and 429/5xx injection as parameters. Sixteen threads
+ * drive a single transport, well past the request rate the script sees in production.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class TransportLoadBenchmark {
+
+    @Param({"4000", "40000"})
+    public int itemCount;
+
+    @Param({"0", "50"})
+    public int latencyMs;
+
+    @Param({"0", "0.05"})
+    public double errorRate;
+
+    private MockWikiServer server;
+    private OsrsWikiTransport transport;
+
+    @Setup
+    public void setUp() {
+        server = new MockWikiServer(new Fixtures(itemCount), 0).start();
+        server.setLatency(Duration.ofMillis(latencyMs), Duration.ofMillis(latencyMs / 2));
+        server.setErrorRates(errorRate / 2, errorRate / 2);
+        server.setRetryAfterSeconds(0);
+        transport = new OsrsWikiTransport(HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build(),
+                new GsonBuilder().serializeNulls().create(),
+                server.getBaseUri(),
+                "HarmonyFlipper-bench",
+                Duration.ofSeconds(15),
+                null,
+                new RetryPolicy(5, Duration.ofMillis(1), Duration.ofMillis(20)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public RawLatestResponse latest() {
+        return transport.fetchLatest();
+    }
+
+    @Benchmark
+    public RawAggregateResponse fiveMinute() {
+        return transport.fetchAggregate("5m");
+    }
+
+    @Benchmark
+    public RawTimeseriesResponse timeseries() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("id", Integer.toString(Fixtures.itemId(ThreadLocalRandom.current().nextInt(itemCount))));
+        params.put("timestep", Time.Step.FIVE_MINUTES.getValue());
+        return transport.fetchTimeseries(params);
+    }
+}
@@ -0,0 +1,123 @@
+package com.harmony.flipper.data;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.harmony.flipper.net.transport.OsrsWikiTransport.RawAggregateResponse;
+import com.harmony.flipper.net.transport.OsrsWikiTransport.RawLatestResponse;
+import com.harmony.flipper.net.transport.OsrsWikiTransport.RawVolumeResponse;
+import com.harmony.flipper.testkit.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One poll, from the /latest, /5m, /1h and /volumes bodies to a {@link Snapshot}: decoded straight into
+ * Integer-keyed maps and adopted by {@link Response} and {@link Snapshot#of}, against the former path that
+ * decoded String-keyed maps, copied them into Integer-keyed ones and copied the mapping into the snapshot.
+ * Compare {@code gc.alloc.rate.norm} under {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseBenchmark {
+
+    @Param({"4000"})
+    public int itemCount;
+
+    private final Gson gson = new Gson();
+    private byte[] latest;
+    private byte[] fiveMinute;
+    private byte[] oneHour;
+    private byte[] volumes;
+    private List<ItemMapping> mapping;
+
+    @Setup
+    public void setUp() {
+        Fixtures fixtures = new Fixtures(itemCount);
+        latest = fixtures.latest();
+        fiveMinute = fixtures.fiveMinute();
+        oneHour = fixtures.oneHour();
+        volumes = fixtures.volumes();
+        // The mapping is revalidated with a 304 on most polls, so every poll reuses the decoded list.
+        mapping = Collections.unmodifiableList(gson.fromJson(new String(fixtures.mapping(), StandardCharsets.UTF_8),
+                new TypeToken<List<ItemMapping>>() {
+                }.getType()));
+    }
+
+    @Benchmark
+    public Snapshot poll() {
+        RawLatestResponse rawLatest = decode(latest, RawLatestResponse.class);
+        RawAggregateResponse rawFiveMinute = decode(fiveMinute, RawAggregateResponse.class);
+        RawAggregateResponse rawOneHour = decode(oneHour, RawAggregateResponse.class);
+        RawVolumeResponse rawVolumes = decode(volumes, RawVolumeResponse.class);
+        return Snapshot.of(
+                Response.Latest.of(rawLatest.data),
+                Response.Aggregate.of(rawFiveMinute.timestamp, rawFiveMinute.data),
+                Response.Aggregate.of(rawOneHour.timestamp, rawOneHour.data),
+                Response.Volume.of(rawVolumes.timestamp, rawVolumes.data),
+                mapping,
+                Collections.emptyMap());
+    }
+
+    @Benchmark
+    public Snapshot copyingPoll() {
+        StringKeyedPrices rawLatest = decode(latest, StringKeyedPrices.class);
+        StringKeyedAggregates rawFiveMinute = decode(fiveMinute, StringKeyedAggregates.class);
+        StringKeyedAggregates rawOneHour = decode(oneHour, StringKeyedAggregates.class);
+        StringKeyedVolumes rawVolumes = decode(volumes, StringKeyedVolumes.class);
+        return new Snapshot(
+                Response.Latest.of(byItemId(rawLatest.data)),
+                Response.Aggregate.of(rawFiveMinute.timestamp, byItemId(rawFiveMinute.data)),
+                Response.Aggregate.of(rawOneHour.timestamp, byItemId(rawOneHour.data)),
+                Response.Volume.of(rawVolumes.timestamp, byItemId(rawVolumes.data)),
+                mapping,
+                Collections.emptyMap());
+    }
+
+    private <T> T decode(byte[] body, Class<T> type) {
+        return gson.fromJson(new JsonReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8)), type);
+    }
+
+    private static <V> Map<Integer, V> byItemId(Map<String, V> raw) {
+        Map<Integer, V> converted = new LinkedHashMap<>(raw.size());
+        for (Map.Entry<String, V> entry : raw.entrySet()) {
+            converted.put(Integer.parseInt(entry.getKey()), entry.getValue());
+        }
+        return converted;
+    }
+
+    public static final class StringKeyedPrices {
+        public Map<String, Price.Latest> data;
+    }
+
+    public static final class StringKeyedAggregates {
+        public long timestamp;
+        public Map<String, Price.Aggregate> data;
+    }
+
+    public static final class StringKeyedVolumes {
+        public long timestamp;
+        public Map<String, Long> data;
+    }
+}
@@ -0,0 +1,72 @@
+package com.harmony.flipper.data;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.harmony.flipper.net.transport.OsrsWikiTransport.RawTimeseriesResponse;
+import com.harmony.flipper.testkit.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the defensive copies the {@link Snapshot} constructor makes of the mapping and timeseries,
+ * against {@link Snapshot#of} taking them over as they are.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+
+    @Param({"4000"})
+    public int itemCount;
+
+    @Param({"200"})
+    public int timeseriesCount;
+
+    private List<ItemMapping> mapping;
+    private Map<Integer, Response.Timeseries> timeseries;
+
+    @Setup
+    public void setUp() {
+        Fixtures fixtures = new Fixtures(itemCount);
+        Gson gson = new Gson();
+        mapping = gson.fromJson(new String(fixtures.mapping(), StandardCharsets.UTF_8),
+                new TypeToken<List<ItemMapping>>() {
+                }.getType());
+        timeseries = new LinkedHashMap<>();
+        for (int i = 0; i < timeseriesCount; i++) {
+            int id = Fixtures.itemId(i);
+            RawTimeseriesResponse raw = gson.fromJson(
+                    new String(fixtures.timeseries(id, Time.Step.FIVE_MINUTES), StandardCharsets.UTF_8),
+                    RawTimeseriesResponse.class);
+            timeseries.put(id, Response.Timeseries.of(id, raw.data));
+        }
+    }
+
+    @Benchmark
+    public Snapshot construct() {
+        return new Snapshot(null, null, null, null, mapping, timeseries);
+    }
+
+    @Benchmark
+    public Snapshot adopt() {
+        return Snapshot.of(null, null, null, null, mapping, timeseries);
+    }
+}
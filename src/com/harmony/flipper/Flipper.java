@@ -2,6 +2,7 @@ package com.harmony.flipper;
 
 
 import com.harmony.flipper.config.Config;
+import com.harmony.flipper.service.PricePollingService;
 import org.rspeer.commons.ArrayUtils;
 import org.rspeer.event.Service;
 import org.rspeer.game.script.Task;
@@ -20,7 +21,7 @@ public class Flipper extends TaskScript {
     @Override
     public Class<? extends Service>[] getServices() {
         return ArrayUtils.getTypeSafeArray(
-
+                PricePollingService.class
         );
     }
 
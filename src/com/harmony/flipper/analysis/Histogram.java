@@ -0,0 +1,90 @@
+package com.harmony.flipper.analysis;
+
+/**
+ * Counts of values in equal-width bins over {@code [min, max)}, plus what fell below and above, mergeable
+ * across threads.
+ */
+public final class Histogram {
+
+    private final double min;
+    private final double max;
+    private final double scale;
+    private final long[] counts;
+    private long below;
+    private long above;
+
+    public Histogram(double min, double max, int bins) {
+        if (!(max > min) || Double.isInfinite(max - min)) {
+            throw new IllegalArgumentException("max must be finite and above min");
+        }
+        if (bins <= 0) {
+            throw new IllegalArgumentException("bins must be positive");
+        }
+        this.min = min;
+        this.max = max;
+        this.scale = bins / (max - min);
+        this.counts = new long[bins];
+    }
+
+    /**
+     * Empty histogram with the same bins as this one.
+     */
+    public Histogram emptyCopy() {
+        return new Histogram(min, max, counts.length);
+    }
+
+    public void accept(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (value < min) {
+            below++;
+        } else if (value >= max) {
+            above++;
+        } else {
+            counts[Math.min(counts.length - 1, (int) ((value - min) * scale))]++;
+        }
+    }
+
+    public void addAll(Histogram other) {
+        if (other.min != min || other.max != max || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("histograms have different bins");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        below += other.below;
+        above += other.above;
+    }
+
+    public int bins() {
+        return counts.length;
+    }
+
+    public long getCount(int bin) {
+        return counts[bin];
+    }
+
+    /**
+     * Lower edge of {@code bin}; the upper edge is the lower edge of the next bin.
+     */
+    public double lowerBound(int bin) {
+        return min + bin / scale;
+    }
+
+    public long getBelow() {
+        return below;
+    }
+
+    public long getAbove() {
+        return above;
+    }
+
+    public long getTotal() {
+        long total = below + above;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+}
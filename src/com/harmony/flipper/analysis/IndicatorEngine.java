@@ -0,0 +1,384 @@
+package com.harmony.flipper.analysis;
+
+import com.harmony.flipper.data.Response;
+import com.harmony.flipper.data.Table;
+import com.harmony.flipper.data.Time;
+import com.harmony.flipper.store.TimeseriesStore;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Rolling per-item indicators updated one price bucket at a time: EMA, VWAP, volatility of log returns and
+ * Bollinger bands over the last {@code window} buckets.
+ * <p>
+ * State lives in primitive arrays: items get a dense slot on first sight and each slot owns a fixed run of
+ * ring-buffer cells. An update therefore costs O(1) and allocates nothing once the item is known. Rolling
+ * sums are recomputed from the ring every time it wraps, which bounds floating-point drift at an amortised
+ * O(1). Buckets at or before an item's last timestamp are ignored, so feeding the same response twice is
+ * harmless.
+ * <p>
+ * The bucket price is the mean of whichever average prices are present. Not thread-safe: feed it from one
+ * thread and read it from that thread or after a happens-before edge.
+ */
+public final class IndicatorEngine {
+
+    private static final int INITIAL_SLOTS = 256;
+
+    private final int window;
+    private final double alpha;
+    private final double bandWidth;
+
+    private int[] slotOf = new int[0];
+    private int slots;
+
+    private long[] lastTimestamp;
+    private double[] ema;
+    private double[] lastPrice;
+    private int[] head;
+    private int[] count;
+    private int[] returnCount;
+
+    private double[] sumPrice;
+    private double[] sumPriceSquared;
+    private double[] sumReturn;
+    private double[] sumReturnSquared;
+    private double[] sumPriceVolume;
+    private double[] sumVolume;
+
+    private double[] priceRing;
+    private double[] returnRing;
+    private double[] priceVolumeRing;
+    private double[] volumeRing;
+
+    /**
+     * @param window    buckets kept for VWAP, volatility and the bands
+     * @param emaPeriod EMA period in buckets; the smoothing factor is {@code 2 / (emaPeriod + 1)}
+     * @param bandWidth Bollinger band distance from the mean, in standard deviations
+     */
+    public IndicatorEngine(int window, int emaPeriod, double bandWidth) {
+        if (window < 2) {
+            throw new IllegalArgumentException("window must be at least 2");
+        }
+        if (emaPeriod <= 0) {
+            throw new IllegalArgumentException("emaPeriod must be positive");
+        }
+        if (!(bandWidth >= 0)) {
+            throw new IllegalArgumentException("bandWidth must not be negative");
+        }
+        this.window = window;
+        this.alpha = 2.0 / (emaPeriod + 1);
+        this.bandWidth = bandWidth;
+        allocate(INITIAL_SLOTS);
+    }
+
+    /**
+     * Twenty-bucket window, twenty-bucket EMA and bands two standard deviations wide.
+     */
+    public IndicatorEngine() {
+        this(20, 20, 2.0);
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * Feeds one bucket of a /5m or /1h response for every item in it.
+     */
+    public void update(Response.Aggregate aggregate) {
+        Objects.requireNonNull(aggregate, "aggregate");
+        update(Table.Aggregate.of(aggregate));
+    }
+
+    public void update(Table.Aggregate aggregate) {
+        Objects.requireNonNull(aggregate, "aggregate");
+        long timestamp = aggregate.getTimestamp();
+        for (int i = 0; i < aggregate.size(); i++) {
+            int id = aggregate.idAt(i);
+            update(id, timestamp,
+                    aggregate.getAvgHighPrice(id),
+                    aggregate.getAvgLowPrice(id),
+                    aggregate.getHighPriceVolume(id),
+                    aggregate.getLowPriceVolume(id));
+        }
+    }
+
+    public void update(Response.Timeseries timeseries) {
+        Objects.requireNonNull(timeseries, "timeseries");
+        update(timeseries.getItemId(), timeseries.getData());
+    }
+
+    /**
+     * Feeds a history in timestamp order; points already seen are skipped.
+     */
+    public void update(int itemId, List<Time.Series> points) {
+        if (points == null) {
+            return;
+        }
+        for (Time.Series point : points) {
+            update(itemId, point);
+        }
+    }
+
+    public boolean update(int itemId, Time.Series point) {
+        Objects.requireNonNull(point, "point");
+        return update(itemId, point.getTimestamp(),
+                orMissing(point.getAvgHighPrice()),
+                orMissing(point.getAvgLowPrice()),
+                orMissing(point.getHighPriceVolume()),
+                orMissing(point.getLowPriceVolume()));
+    }
+
+    public void update(int itemId, TimeseriesStore.Range range) {
+        Objects.requireNonNull(range, "range");
+        for (int i = 0; i < range.size(); i++) {
+            update(itemId, range.getTimestamp(i),
+                    range.getAvgHighPrice(i),
+                    range.getAvgLowPrice(i),
+                    range.getHighPriceVolume(i),
+                    range.getLowPriceVolume(i));
+        }
+    }
+
+    /**
+     * Applies one bucket; {@link Table#MISSING} marks absent fields. Returns whether the bucket was used,
+     * which it is not when it is older than the item's last bucket, carries no price, or belongs to an id
+     * {@link Table#isIndexable(int) Table would not index}, so one bogus id cannot size the slot index.
+     */
+    public boolean update(int itemId, long timestamp, int avgHighPrice, int avgLowPrice,
+                          long highPriceVolume, long lowPriceVolume) {
+        if (!Table.isIndexable(itemId)) {
+            return false;
+        }
+        double price = price(avgHighPrice, avgLowPrice);
+        if (Double.isNaN(price)) {
+            return false;
+        }
+        int slot = slotFor(itemId);
+        if (count[slot] > 0 && timestamp <= lastTimestamp[slot]) {
+            return false;
+        }
+        lastTimestamp[slot] = timestamp;
+
+        double volume = 0;
+        double priceVolume = 0;
+        if (avgHighPrice > 0 && highPriceVolume > 0) {
+            volume += highPriceVolume;
+            priceVolume += (double) avgHighPrice * highPriceVolume;
+        }
+        if (avgLowPrice > 0 && lowPriceVolume > 0) {
+            volume += lowPriceVolume;
+            priceVolume += (double) avgLowPrice * lowPriceVolume;
+        }
+        double logReturn = count[slot] == 0 ? Double.NaN : Math.log(price / lastPrice[slot]);
+
+        ema[slot] = count[slot] == 0 ? price : ema[slot] + alpha * (price - ema[slot]);
+        lastPrice[slot] = price;
+
+        int cell = slot * window + head[slot];
+        if (count[slot] == window) {
+            sumPrice[slot] -= priceRing[cell];
+            sumPriceSquared[slot] -= priceRing[cell] * priceRing[cell];
+            sumPriceVolume[slot] -= priceVolumeRing[cell];
+            sumVolume[slot] -= volumeRing[cell];
+            if (!Double.isNaN(returnRing[cell])) {
+                sumReturn[slot] -= returnRing[cell];
+                sumReturnSquared[slot] -= returnRing[cell] * returnRing[cell];
+                returnCount[slot]--;
+            }
+        } else {
+            count[slot]++;
+        }
+        priceRing[cell] = price;
+        returnRing[cell] = logReturn;
+        priceVolumeRing[cell] = priceVolume;
+        volumeRing[cell] = volume;
+        sumPrice[slot] += price;
+        sumPriceSquared[slot] += price * price;
+        sumPriceVolume[slot] += priceVolume;
+        sumVolume[slot] += volume;
+        if (!Double.isNaN(logReturn)) {
+            sumReturn[slot] += logReturn;
+            sumReturnSquared[slot] += logReturn * logReturn;
+            returnCount[slot]++;
+        }
+
+        if (++head[slot] == window) {
+            head[slot] = 0;
+            resum(slot);
+        }
+        return true;
+    }
+
+    public boolean contains(int itemId) {
+        return slotOf(itemId) >= 0;
+    }
+
+    /**
+     * Buckets currently in the item's window.
+     */
+    public int getCount(int itemId) {
+        int slot = slotOf(itemId);
+        return slot < 0 ? 0 : count[slot];
+    }
+
+    public long getLastTimestamp(int itemId) {
+        int slot = slotOf(itemId);
+        return slot < 0 ? Table.MISSING : lastTimestamp[slot];
+    }
+
+    public double getLastPrice(int itemId) {
+        int slot = slotOf(itemId);
+        return slot < 0 ? Double.NaN : lastPrice[slot];
+    }
+
+    public double getEma(int itemId) {
+        int slot = slotOf(itemId);
+        return slot < 0 ? Double.NaN : ema[slot];
+    }
+
+    /**
+     * Volume-weighted average price over the window, or NaN when nothing traded in it.
+     */
+    public double getVwap(int itemId) {
+        int slot = slotOf(itemId);
+        return slot < 0 || sumVolume[slot] <= 0 ? Double.NaN : sumPriceVolume[slot] / sumVolume[slot];
+    }
+
+    /**
+     * Simple moving average of the bucket price, the Bollinger middle band.
+     */
+    public double getMean(int itemId) {
+        int slot = slotOf(itemId);
+        return slot < 0 ? Double.NaN : sumPrice[slot] / count[slot];
+    }
+
+    /**
+     * Population standard deviation of the bucket price over the window.
+     */
+    public double getStdDev(int itemId) {
+        int slot = slotOf(itemId);
+        return slot < 0 ? Double.NaN : deviation(sumPrice[slot], sumPriceSquared[slot], count[slot]);
+    }
+
+    /**
+     * Standard deviation of per-bucket log returns over the window, or NaN before two buckets are seen.
+     */
+    public double getVolatility(int itemId) {
+        int slot = slotOf(itemId);
+        return slot < 0 || returnCount[slot] == 0
+                ? Double.NaN
+                : deviation(sumReturn[slot], sumReturnSquared[slot], returnCount[slot]);
+    }
+
+    public double getUpperBand(int itemId) {
+        return getMean(itemId) + bandWidth * getStdDev(itemId);
+    }
+
+    public double getLowerBand(int itemId) {
+        return getMean(itemId) - bandWidth * getStdDev(itemId);
+    }
+
+    private static double deviation(double sum, double sumSquared, int n) {
+        double mean = sum / n;
+        return Math.sqrt(Math.max(0, sumSquared / n - mean * mean));
+    }
+
+    private void resum(int slot) {
+        int base = slot * window;
+        double price = 0;
+        double priceSquared = 0;
+        double logReturn = 0;
+        double returnSquared = 0;
+        double priceVolume = 0;
+        double volume = 0;
+        for (int i = base; i < base + window; i++) {
+            price += priceRing[i];
+            priceSquared += priceRing[i] * priceRing[i];
+            priceVolume += priceVolumeRing[i];
+            volume += volumeRing[i];
+            if (!Double.isNaN(returnRing[i])) {
+                logReturn += returnRing[i];
+                returnSquared += returnRing[i] * returnRing[i];
+            }
+        }
+        sumPrice[slot] = price;
+        sumPriceSquared[slot] = priceSquared;
+        sumReturn[slot] = logReturn;
+        sumReturnSquared[slot] = returnSquared;
+        sumPriceVolume[slot] = priceVolume;
+        sumVolume[slot] = volume;
+    }
+
+    private int slotOf(int itemId) {
+        return itemId >= 0 && itemId < slotOf.length ? slotOf[itemId] : -1;
+    }
+
+    private int slotFor(int itemId) {
+        if (itemId >= slotOf.length) {
+            int length = Math.max(itemId + 1, slotOf.length * 2);
+            int previous = slotOf.length;
+            slotOf = Arrays.copyOf(slotOf, length);
+            Arrays.fill(slotOf, previous, length, -1);
+        }
+        int slot = slotOf[itemId];
+        if (slot < 0) {
+            if (slots == count.length) {
+                allocate(slots * 2);
+            }
+            slot = slots++;
+            slotOf[itemId] = slot;
+        }
+        return slot;
+    }
+
+    private void allocate(int capacity) {
+        lastTimestamp = grow(lastTimestamp, capacity);
+        ema = grow(ema, capacity);
+        lastPrice = grow(lastPrice, capacity);
+        head = grow(head, capacity);
+        count = grow(count, capacity);
+        returnCount = grow(returnCount, capacity);
+        sumPrice = grow(sumPrice, capacity);
+        sumPriceSquared = grow(sumPriceSquared, capacity);
+        sumReturn = grow(sumReturn, capacity);
+        sumReturnSquared = grow(sumReturnSquared, capacity);
+        sumPriceVolume = grow(sumPriceVolume, capacity);
+        sumVolume = grow(sumVolume, capacity);
+        priceRing = grow(priceRing, capacity * window);
+        returnRing = grow(returnRing, capacity * window);
+        priceVolumeRing = grow(priceVolumeRing, capacity * window);
+        volumeRing = grow(volumeRing, capacity * window);
+    }
+
+    private static double price(int avgHighPrice, int avgLowPrice) {
+        boolean high = avgHighPrice > 0;
+        boolean low = avgLowPrice > 0;
+        if (high && low) {
+            return ((double) avgHighPrice + avgLowPrice) / 2;
+        }
+        return high ? avgHighPrice : low ? avgLowPrice : Double.NaN;
+    }
+
+    private static long[] grow(long[] column, int capacity) {
+        return column == null ? new long[capacity] : Arrays.copyOf(column, capacity);
+    }
+
+    private static int[] grow(int[] column, int capacity) {
+        return column == null ? new int[capacity] : Arrays.copyOf(column, capacity);
+    }
+
+    private static double[] grow(double[] column, int capacity) {
+        return column == null ? new double[capacity] : Arrays.copyOf(column, capacity);
+    }
+
+    private static int orMissing(Integer value) {
+        return value == null ? Table.MISSING : value;
+    }
+
+    private static long orMissing(Long value) {
+        return value == null ? Table.MISSING : value;
+    }
+}
@@ -0,0 +1,190 @@
+package com.harmony.flipper.analysis;
+
+import com.harmony.flipper.data.Table;
+import com.harmony.flipper.scan.TopK;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Runs a per-item metric kernel over many item ids on a {@link ForkJoinPool} and folds the values into a
+ * {@link Reduction} such as a {@link TopK}, a {@link Histogram} or a {@link Summary}.
+ * <p>
+ * The id range is split in halves down to chunks of {@code chunkSize} ids. Each chunk gets its own
+ * accumulator, and sibling accumulators are merged as the tasks join, so kernels and accumulators never
+ * need locks. Kernels are called from several threads at once and must only read shared state, such as the
+ * columns of a {@link Table}. A kernel returns NaN to leave an item out.
+ */
+public final class ParallelEvaluator {
+
+    private static final int DEFAULT_CHUNK_SIZE = 256;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public ParallelEvaluator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelEvaluator(ForkJoinPool pool, int chunkSize) {
+        this.pool = Objects.requireNonNull(pool, "pool");
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Evaluates every item priced in {@code latest}.
+     */
+    public <A> A evaluate(Table.Latest latest, IntToDoubleFunction kernel, Reduction<A> reduction) {
+        Objects.requireNonNull(latest, "latest");
+        int[] ids = new int[latest.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = latest.idAt(i);
+        }
+        return evaluate(ids, 0, ids.length, kernel, reduction);
+    }
+
+    public <A> A evaluate(int[] itemIds, IntToDoubleFunction kernel, Reduction<A> reduction) {
+        return evaluate(itemIds, 0, itemIds.length, kernel, reduction);
+    }
+
+    /**
+     * Evaluates {@code itemIds[from, to)}.
+     */
+    public <A> A evaluate(int[] itemIds, int from, int to, IntToDoubleFunction kernel, Reduction<A> reduction) {
+        Objects.requireNonNull(itemIds, "itemIds");
+        Objects.requireNonNull(kernel, "kernel");
+        Objects.requireNonNull(reduction, "reduction");
+        Objects.checkFromToIndex(from, to, itemIds.length);
+        Chunk<A> root = new Chunk<>(itemIds, from, to, kernel, reduction, chunkSize);
+        if (to - from <= chunkSize) {
+            return root.compute();
+        }
+        return pool.invoke(root);
+    }
+
+    /**
+     * Keeps the {@code k} items with the highest values.
+     */
+    public static Reduction<TopK> topK(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        return new Reduction<TopK>() {
+            @Override
+            public TopK create() {
+                return new TopK(k);
+            }
+
+            @Override
+            public void accept(TopK top, int itemId, double value) {
+                top.offer(itemId, value);
+            }
+
+            @Override
+            public void merge(TopK into, TopK from) {
+                into.addAll(from);
+            }
+        };
+    }
+
+    public static Reduction<Histogram> histogram(double min, double max, int bins) {
+        Histogram template = new Histogram(min, max, bins);
+        return new Reduction<Histogram>() {
+            @Override
+            public Histogram create() {
+                return template.emptyCopy();
+            }
+
+            @Override
+            public void accept(Histogram histogram, int itemId, double value) {
+                histogram.accept(value);
+            }
+
+            @Override
+            public void merge(Histogram into, Histogram from) {
+                into.addAll(from);
+            }
+        };
+    }
+
+    public static Reduction<Summary> summary() {
+        return new Reduction<Summary>() {
+            @Override
+            public Summary create() {
+                return new Summary();
+            }
+
+            @Override
+            public void accept(Summary summary, int itemId, double value) {
+                summary.accept(value);
+            }
+
+            @Override
+            public void merge(Summary into, Summary from) {
+                into.addAll(from);
+            }
+        };
+    }
+
+    /**
+     * Mutable accumulator for kernel values. Each accumulator is used by one thread at a time; {@code merge}
+     * must leave {@code into} as if it had seen the values of both.
+     */
+    public interface Reduction<A> {
+
+        A create();
+
+        void accept(A accumulator, int itemId, double value);
+
+        void merge(A into, A from);
+    }
+
+    private static final class Chunk<A> extends RecursiveTask<A> {
+        private final int[] itemIds;
+        private final int from;
+        private final int to;
+        private final IntToDoubleFunction kernel;
+        private final Reduction<A> reduction;
+        private final int chunkSize;
+
+        private Chunk(int[] itemIds, int from, int to, IntToDoubleFunction kernel, Reduction<A> reduction, int chunkSize) {
+            this.itemIds = itemIds;
+            this.from = from;
+            this.to = to;
+            this.kernel = kernel;
+            this.reduction = reduction;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from > chunkSize) {
+                int mid = (from + to) >>> 1;
+                Chunk<A> left = new Chunk<>(itemIds, from, mid, kernel, reduction, chunkSize);
+                left.fork();
+                A right = new Chunk<>(itemIds, mid, to, kernel, reduction, chunkSize).compute();
+                A merged = left.join();
+                reduction.merge(merged, right);
+                return merged;
+            }
+            A accumulator = reduction.create();
+            for (int i = from; i < to; i++) {
+                int id = itemIds[i];
+                double value = kernel.applyAsDouble(id);
+                if (!Double.isNaN(value)) {
+                    reduction.accept(accumulator, id, value);
+                }
+            }
+            return accumulator;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.harmony.flipper.analysis;
+
+/**
+ * Count, sum, extremes and spread of a stream of values, mergeable across threads.
+ */
+public final class Summary {
+
+    private long count;
+    private double sum;
+    private double sumSquares;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void accept(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        count++;
+        sum += value;
+        sumSquares += value * value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void addAll(Summary other) {
+        count += other.count;
+        sum += other.sum;
+        sumSquares += other.sumSquares;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * Smallest value, or NaN when nothing was accepted.
+     */
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    /**
+     * Population standard deviation, or NaN when nothing was accepted.
+     */
+    public double getStandardDeviation() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double mean = sum / count;
+        return Math.sqrt(Math.max(0.0, sumSquares / count - mean * mean));
+    }
+}
@@ -0,0 +1,194 @@
+package com.harmony.flipper.backtest;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Replays a {@link History} through a {@link Strategy} and reports the profit and loss of the simulated
+ * GE trades; see {@link Market} for the fill model.
+ * <p>
+ * Items never interact, so the item range is split across a {@link ForkJoinPool} and each task replays its
+ * items' rows straight from the history's primitive columns, writing results into per-item slots. Capital is
+ * not shared between items: the result is the sum of independent per-item runs.
+ */
+public final class Backtester {
+
+    private static final double DEFAULT_PARTICIPATION = 0.1;
+    private static final int ROWS_PER_TASK = 1 << 16;
+
+    private final double participation;
+
+    public Backtester() {
+        this(DEFAULT_PARTICIPATION);
+    }
+
+    /**
+     * @param participation share of a bucket's traded volume, on each side, that our offers may fill
+     */
+    public Backtester(double participation) {
+        if (!(participation > 0 && participation <= 1)) {
+            throw new IllegalArgumentException("participation must be in (0, 1]");
+        }
+        this.participation = participation;
+    }
+
+    public Result run(History history, Strategy strategy) {
+        return run(history, strategy, ForkJoinPool.commonPool());
+    }
+
+    public Result run(History history, Strategy strategy, ForkJoinPool pool) {
+        Objects.requireNonNull(history, "history");
+        Objects.requireNonNull(strategy, "strategy");
+        Objects.requireNonNull(pool, "pool");
+        Result result = new Result(history);
+        if (history.itemCount() > 0) {
+            pool.invoke(new Replay(history, strategy, result, 0, history.itemCount()));
+        }
+        return result;
+    }
+
+    private void replay(History history, Strategy strategy, Result result, int item) {
+        Strategy.Trader trader = strategy.begin(history.itemIdAt(item), history.limitAt(item));
+        if (trader == null) {
+            return;
+        }
+        Market market = new Market(history.itemIdAt(item), history.limitAt(item), participation);
+        for (int row = history.start(item), end = history.end(item); row < end; row++) {
+            market.advance(history.getTimestamp(row),
+                    history.getAvgHighPrice(row), history.getAvgLowPrice(row),
+                    history.getHighPriceVolume(row), history.getLowPriceVolume(row));
+            trader.onBucket(market);
+        }
+        result.record(item, market);
+    }
+
+    private final class Replay extends RecursiveAction {
+        private final History history;
+        private final Strategy strategy;
+        private final Result result;
+        private final int from;
+        private final int to;
+
+        private Replay(History history, Strategy strategy, Result result, int from, int to) {
+            this.history = history;
+            this.strategy = strategy;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int rows = history.end(to - 1) - history.start(from);
+            if (to - from > 1 && rows > ROWS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Replay(history, strategy, result, from, mid),
+                        new Replay(history, strategy, result, mid, to));
+                return;
+            }
+            for (int item = from; item < to; item++) {
+                replay(history, strategy, result, item);
+            }
+        }
+    }
+
+    /**
+     * Per-item and total outcome of a run, in gp and units. Items are indexed as in the {@link History}.
+     */
+    public static final class Result {
+        private final History history;
+        private final long[] realized;
+        private final long[] unrealized;
+        private final long[] tax;
+        private final long[] bought;
+        private final long[] sold;
+        private final long[] inventory;
+
+        private Result(History history) {
+            int items = history.itemCount();
+            this.history = history;
+            this.realized = new long[items];
+            this.unrealized = new long[items];
+            this.tax = new long[items];
+            this.bought = new long[items];
+            this.sold = new long[items];
+            this.inventory = new long[items];
+        }
+
+        private void record(int item, Market market) {
+            realized[item] = market.getRealizedProfit();
+            unrealized[item] = market.unrealizedProfit();
+            tax[item] = market.getTaxPaid();
+            bought[item] = market.getBought();
+            sold[item] = market.getSold();
+            inventory[item] = market.getInventory();
+        }
+
+        public int size() {
+            return realized.length;
+        }
+
+        public int itemIdAt(int item) {
+            return history.itemIdAt(item);
+        }
+
+        /**
+         * Profit from units bought and sold again, after tax.
+         */
+        public long getRealizedProfit(int item) {
+            return realized[item];
+        }
+
+        /**
+         * Profit the units still held would make if sold after tax at the last high price.
+         */
+        public long getUnrealizedProfit(int item) {
+            return unrealized[item];
+        }
+
+        public long getTaxPaid(int item) {
+            return tax[item];
+        }
+
+        public long getBought(int item) {
+            return bought[item];
+        }
+
+        public long getSold(int item) {
+            return sold[item];
+        }
+
+        public long getInventory(int item) {
+            return inventory[item];
+        }
+
+        public long getRealizedProfit() {
+            return sum(realized);
+        }
+
+        public long getUnrealizedProfit() {
+            return sum(unrealized);
+        }
+
+        public long getTaxPaid() {
+            return sum(tax);
+        }
+
+        public long getBought() {
+            return sum(bought);
+        }
+
+        public long getSold() {
+            return sum(sold);
+        }
+
+        private static long sum(long[] column) {
+            long total = 0;
+            for (long value : column) {
+                total += value;
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.harmony.flipper.backtest;
+
+import com.harmony.flipper.data.Response;
+import com.harmony.flipper.data.Snapshot;
+import com.harmony.flipper.data.Table;
+import com.harmony.flipper.data.Time;
+import com.harmony.flipper.store.TimeseriesStore;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Price buckets for many items laid out as primitive columns, grouped by item and in ascending timestamp
+ * order within each item, ready to be replayed by {@link Backtester}.
+ * <p>
+ * Item {@code i} (by ascending id) owns rows {@code [start(i), end(i))}. Absent prices and volumes are
+ * {@link Table#MISSING}. Buckets that do not come after the item's previous one are dropped while building.
+ */
+public final class History {
+
+    private final int[] itemIds;
+    private final int[] limits;
+    private final int[] offsets;
+    private final long[] timestamp;
+    private final int[] avgHighPrice;
+    private final int[] avgLowPrice;
+    private final long[] highPriceVolume;
+    private final long[] lowPriceVolume;
+
+    private History(int[] itemIds, int[] limits, int[] offsets, int rows) {
+        this(itemIds, limits, offsets, new long[rows], new int[rows], new int[rows], new long[rows], new long[rows]);
+    }
+
+    private History(int[] itemIds, int[] limits, int[] offsets, long[] timestamp, int[] avgHighPrice,
+                    int[] avgLowPrice, long[] highPriceVolume, long[] lowPriceVolume) {
+        this.itemIds = itemIds;
+        this.limits = limits;
+        this.offsets = offsets;
+        this.timestamp = timestamp;
+        this.avgHighPrice = avgHighPrice;
+        this.avgLowPrice = avgLowPrice;
+        this.highPriceVolume = highPriceVolume;
+        this.lowPriceVolume = lowPriceVolume;
+    }
+
+    /**
+     * Wraps columns that are already laid out as described above, without copying them.
+     *
+     * @param offsets {@code itemIds.length + 1} ascending row offsets, starting at 0 and ending at the row count
+     */
+    public static History of(int[] itemIds, int[] limits, int[] offsets, long[] timestamp, int[] avgHighPrice,
+                             int[] avgLowPrice, long[] highPriceVolume, long[] lowPriceVolume) {
+        int items = itemIds.length;
+        int rows = timestamp.length;
+        if (limits.length != items || offsets.length != items + 1 || offsets[0] != 0 || offsets[items] != rows
+                || avgHighPrice.length != rows || avgLowPrice.length != rows
+                || highPriceVolume.length != rows || lowPriceVolume.length != rows) {
+            throw new IllegalArgumentException("column lengths do not match the offsets");
+        }
+        for (int i = 0; i < items; i++) {
+            if (offsets[i] > offsets[i + 1] || (i > 0 && itemIds[i - 1] >= itemIds[i])) {
+                throw new IllegalArgumentException("item ids and offsets must be ascending");
+            }
+        }
+        return new History(itemIds, limits, offsets, timestamp, avgHighPrice, avgLowPrice, highPriceVolume, lowPriceVolume);
+    }
+
+    /**
+     * Replays the /5m buckets of archived snapshots, oldest first; a snapshot whose bucket is not newer than
+     * the previous one is skipped. Buy limits come from the last snapshot's mapping.
+     */
+    public static History ofSnapshots(List<Snapshot> snapshots) {
+        Objects.requireNonNull(snapshots, "snapshots");
+        Table.Aggregate[] buckets = new Table.Aggregate[snapshots.size()];
+        int bucketCount = 0;
+        long last = Long.MIN_VALUE;
+        Table.Limit limits = Table.Limit.of(null);
+        int capacity = 0;
+        for (Snapshot snapshot : snapshots) {
+            if (snapshot == null) {
+                continue;
+            }
+            limits = snapshot.getLimitTable();
+            Table.Aggregate table = snapshot.getFiveMinuteTable();
+            if (table.getTimestamp() <= last) {
+                continue;
+            }
+            last = table.getTimestamp();
+            buckets[bucketCount++] = table;
+            capacity = Math.max(capacity, table.capacity());
+        }
+
+        int[] counts = new int[capacity];
+        for (int b = 0; b < bucketCount; b++) {
+            Table.Aggregate table = buckets[b];
+            for (int i = 0; i < table.size(); i++) {
+                counts[table.idAt(i)]++;
+            }
+        }
+        History history = allocate(counts, limits);
+        int[] cursor = history.cursors(capacity);
+        for (int b = 0; b < bucketCount; b++) {
+            Table.Aggregate table = buckets[b];
+            for (int i = 0; i < table.size(); i++) {
+                int id = table.idAt(i);
+                history.set(cursor[id]++, table.getTimestamp(),
+                        table.getAvgHighPrice(id), table.getAvgLowPrice(id),
+                        table.getHighPriceVolume(id), table.getLowPriceVolume(id));
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Lays out per-item timeseries; series whose id {@link Table#isIndexable(int) Table would not index} are
+     * skipped, so one bogus id cannot size the per-id work arrays.
+     */
+    public static History ofTimeseries(Collection<Response.Timeseries> series, Table.Limit limits) {
+        Objects.requireNonNull(series, "series");
+        Objects.requireNonNull(limits, "limits");
+        int capacity = 0;
+        for (Response.Timeseries timeseries : series) {
+            if (Table.isIndexable(timeseries.getItemId())) {
+                capacity = Math.max(capacity, timeseries.getItemId() + 1);
+            }
+        }
+        int[] counts = new int[capacity];
+        for (Response.Timeseries timeseries : series) {
+            if (Table.isIndexable(timeseries.getItemId())) {
+                counts[timeseries.getItemId()] += timeseries.getData().size();
+            }
+        }
+        History history = allocate(counts, limits);
+        int[] cursor = history.cursors(capacity);
+        for (Response.Timeseries timeseries : series) {
+            int id = timeseries.getItemId();
+            if (!Table.isIndexable(id) || counts[id] == 0) {
+                continue;
+            }
+            int first = history.offsets[Arrays.binarySearch(history.itemIds, id)];
+            for (Time.Series point : timeseries.getData()) {
+                int row = cursor[id];
+                if (row == first || history.timestamp[row - 1] < point.getTimestamp()) {
+                    history.set(cursor[id]++, point.getTimestamp(),
+                            orMissing(point.getAvgHighPrice()), orMissing(point.getAvgLowPrice()),
+                            orMissing(point.getHighPriceVolume()), orMissing(point.getLowPriceVolume()));
+                }
+            }
+        }
+        return history.trimmed(cursor);
+    }
+
+    /**
+     * Reads {@code [fromInclusive, toExclusive)} of every listed item from a {@link TimeseriesStore}. Ids
+     * outside {@link Table#isIndexable(int)} are skipped.
+     */
+    public static History ofStore(TimeseriesStore store, Time.Step step, int[] itemIds,
+                                  long fromInclusive, long toExclusive, Table.Limit limits) {
+        Objects.requireNonNull(store, "store");
+        Objects.requireNonNull(step, "step");
+        Objects.requireNonNull(limits, "limits");
+        int[] ids = Arrays.stream(itemIds).filter(Table::isIndexable).sorted().distinct().toArray();
+        TimeseriesStore.Range[] ranges = new TimeseriesStore.Range[ids.length];
+        int capacity = ids.length == 0 ? 0 : ids[ids.length - 1] + 1;
+        int[] counts = new int[capacity];
+        for (int i = 0; i < ids.length; i++) {
+            ranges[i] = store.range(ids[i], step, fromInclusive, toExclusive);
+            counts[ids[i]] = ranges[i].size();
+        }
+        History history = allocate(counts, limits);
+        int[] cursor = history.cursors(capacity);
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[i];
+            TimeseriesStore.Range range = ranges[i];
+            for (int r = 0; r < range.size(); r++) {
+                history.set(cursor[id]++, range.getTimestamp(r),
+                        range.getAvgHighPrice(r), range.getAvgLowPrice(r),
+                        range.getHighPriceVolume(r), range.getLowPriceVolume(r));
+            }
+        }
+        return history;
+    }
+
+    public int itemCount() {
+        return itemIds.length;
+    }
+
+    public int rowCount() {
+        return timestamp.length;
+    }
+
+    public int itemIdAt(int item) {
+        return itemIds[item];
+    }
+
+    /**
+     * GE buy limit of the {@code item}-th item, or {@link Table#MISSING} when unknown.
+     */
+    public int limitAt(int item) {
+        return limits[item];
+    }
+
+    public int start(int item) {
+        return offsets[item];
+    }
+
+    public int end(int item) {
+        return offsets[item + 1];
+    }
+
+    public long getTimestamp(int row) {
+        return timestamp[row];
+    }
+
+    public int getAvgHighPrice(int row) {
+        return avgHighPrice[row];
+    }
+
+    public int getAvgLowPrice(int row) {
+        return avgLowPrice[row];
+    }
+
+    public long getHighPriceVolume(int row) {
+        return highPriceVolume[row];
+    }
+
+    public long getLowPriceVolume(int row) {
+        return lowPriceVolume[row];
+    }
+
+    private static History allocate(int[] counts, Table.Limit limits) {
+        int items = 0;
+        int rows = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                items++;
+                rows += count;
+            }
+        }
+        int[] ids = new int[items];
+        int[] itemLimits = new int[items];
+        int[] offsets = new int[items + 1];
+        int item = 0;
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                ids[item] = id;
+                itemLimits[item] = limits.getLimit(id);
+                offsets[item + 1] = offsets[item] + counts[id];
+                item++;
+            }
+        }
+        return new History(ids, itemLimits, offsets, rows);
+    }
+
+    /**
+     * Next free row of every item, indexed by item id.
+     */
+    private int[] cursors(int capacity) {
+        int[] cursor = new int[capacity];
+        for (int i = 0; i < itemIds.length; i++) {
+            cursor[itemIds[i]] = offsets[i];
+        }
+        return cursor;
+    }
+
+    /**
+     * Closes the gaps left by dropped out-of-order buckets.
+     */
+    private History trimmed(int[] cursor) {
+        int[] counts = new int[cursor.length];
+        boolean gaps = false;
+        for (int i = 0; i < itemIds.length; i++) {
+            counts[itemIds[i]] = cursor[itemIds[i]] - offsets[i];
+            gaps |= cursor[itemIds[i]] != offsets[i + 1];
+        }
+        if (!gaps) {
+            return this;
+        }
+        int[] kept = new int[itemIds.length];
+        int[] keptLimits = new int[itemIds.length];
+        int[] keptOffsets = new int[itemIds.length + 1];
+        int items = 0;
+        for (int i = 0; i < itemIds.length; i++) {
+            int count = counts[itemIds[i]];
+            if (count > 0) {
+                kept[items] = itemIds[i];
+                keptLimits[items] = limits[i];
+                keptOffsets[items + 1] = keptOffsets[items] + count;
+                items++;
+            }
+        }
+        History compact = new History(Arrays.copyOf(kept, items), Arrays.copyOf(keptLimits, items),
+                Arrays.copyOf(keptOffsets, items + 1), keptOffsets[items]);
+        for (int i = 0, item = 0; i < itemIds.length; i++) {
+            int count = counts[itemIds[i]];
+            if (count == 0) {
+                continue;
+            }
+            int from = offsets[i];
+            int to = compact.offsets[item++];
+            System.arraycopy(timestamp, from, compact.timestamp, to, count);
+            System.arraycopy(avgHighPrice, from, compact.avgHighPrice, to, count);
+            System.arraycopy(avgLowPrice, from, compact.avgLowPrice, to, count);
+            System.arraycopy(highPriceVolume, from, compact.highPriceVolume, to, count);
+            System.arraycopy(lowPriceVolume, from, compact.lowPriceVolume, to, count);
+        }
+        return compact;
+    }
+
+    private void set(int row, long bucketTimestamp, int avgHigh, int avgLow, long highVolume, long lowVolume) {
+        timestamp[row] = bucketTimestamp;
+        avgHighPrice[row] = avgHigh;
+        avgLowPrice[row] = avgLow;
+        highPriceVolume[row] = highVolume;
+        lowPriceVolume[row] = lowVolume;
+    }
+
+    private static int orMissing(Integer value) {
+        return value == null ? Table.MISSING : value;
+    }
+
+    private static long orMissing(Long value) {
+        return value == null ? Table.MISSING : value;
+    }
+}
@@ -0,0 +1,44 @@
+package com.harmony.flipper.backtest;
+
+import com.harmony.flipper.scan.GeTax;
+
+/**
+ * Baseline flip: bid the last average low price and ask the last average high price while the margin after
+ * tax is at least {@code minProfit} gp a unit. Offers are re-priced every bucket; held stock is always
+ * offered at the current ask, even once the margin has closed.
+ */
+public final class MarginStrategy implements Strategy {
+
+    private final int minProfit;
+    private final long maxQuantity;
+
+    /**
+     * @param maxQuantity most units bid for at once, on top of the buy limit
+     */
+    public MarginStrategy(int minProfit, long maxQuantity) {
+        if (minProfit <= 0 || maxQuantity <= 0) {
+            throw new IllegalArgumentException("minProfit and maxQuantity must be positive");
+        }
+        this.minProfit = minProfit;
+        this.maxQuantity = maxQuantity;
+    }
+
+    @Override
+    public Trader begin(int itemId, int buyLimit) {
+        return market -> {
+            int bid = market.getLastLowPrice();
+            int ask = market.getLastHighPrice();
+            if (bid <= 0 || ask <= 0) {
+                return;
+            }
+            if (GeTax.afterTax(ask) - bid >= minProfit) {
+                market.buy(bid, Math.min(maxQuantity, market.getRemainingLimit()));
+            } else {
+                market.cancelBuy();
+            }
+            if (market.getInventory() > 0) {
+                market.sell(ask, market.getInventory());
+            }
+        };
+    }
+}
@@ -0,0 +1,260 @@
+package com.harmony.flipper.backtest;
+
+import com.harmony.flipper.data.Table;
+import com.harmony.flipper.scan.GeTax;
+
+/**
+ * One item's view of the replay: the bucket just closed, the position held and the standing orders.
+ * <p>
+ * Each item has at most one buy and one sell offer, like a GE slot pair; placing a new one replaces the
+ * previous. A buy fills when the bucket's average low price is at or below its price, a sell when the
+ * average high price is at or above it, both at the offer's own price. Each bucket fills at most the
+ * configured share of the bucket's traded volume on that side, and buys never exceed the four-hour buy
+ * limit. Shares below one unit carry over to later buckets until the offer is re-priced or cancelled.
+ * Sales pay {@link GeTax}.
+ */
+public final class Market {
+
+    static final long LIMIT_WINDOW_SECONDS = 4 * 60 * 60;
+
+    private final int itemId;
+    private final int buyLimit;
+    private final double participation;
+
+    private long timestamp;
+    private int avgHighPrice = Table.MISSING;
+    private int avgLowPrice = Table.MISSING;
+    private long highPriceVolume = Table.MISSING;
+    private long lowPriceVolume = Table.MISSING;
+    private int lastHighPrice = Table.MISSING;
+    private int lastLowPrice = Table.MISSING;
+
+    private int buyPrice;
+    private long buyQuantity;
+    private int sellPrice;
+    private long sellQuantity;
+    private double buyCredit;
+    private double sellCredit;
+
+    private long limitWindowStart = Long.MIN_VALUE;
+    private long boughtInWindow;
+
+    private long inventory;
+    private long costBasis;
+    private long realizedProfit;
+    private long taxPaid;
+    private long bought;
+    private long sold;
+
+    Market(int itemId, int buyLimit, double participation) {
+        this.itemId = itemId;
+        this.buyLimit = buyLimit;
+        this.participation = participation;
+    }
+
+    public int getItemId() {
+        return itemId;
+    }
+
+    /**
+     * GE buy limit per four hours, or {@link Table#MISSING} when unknown; unknown limits are not enforced.
+     */
+    public int getBuyLimit() {
+        return buyLimit;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getAvgHighPrice() {
+        return avgHighPrice;
+    }
+
+    public int getAvgLowPrice() {
+        return avgLowPrice;
+    }
+
+    public long getHighPriceVolume() {
+        return highPriceVolume;
+    }
+
+    public long getLowPriceVolume() {
+        return lowPriceVolume;
+    }
+
+    /**
+     * Most recent average high price seen in any bucket so far, or {@link Table#MISSING}.
+     */
+    public int getLastHighPrice() {
+        return lastHighPrice;
+    }
+
+    public int getLastLowPrice() {
+        return lastLowPrice;
+    }
+
+    public long getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Units that can still be bought before the current four-hour window resets.
+     */
+    public long getRemainingLimit() {
+        if (buyLimit <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return timestamp >= limitWindowStart + LIMIT_WINDOW_SECONDS ? buyLimit : Math.max(0L, buyLimit - boughtInWindow);
+    }
+
+    public int getBuyPrice() {
+        return buyPrice;
+    }
+
+    public long getBuyQuantity() {
+        return buyQuantity;
+    }
+
+    public int getSellPrice() {
+        return sellPrice;
+    }
+
+    public long getSellQuantity() {
+        return sellQuantity;
+    }
+
+    public long getRealizedProfit() {
+        return realizedProfit;
+    }
+
+    public void buy(int price, long quantity) {
+        if (price <= 0 || quantity < 0) {
+            throw new IllegalArgumentException("price must be positive and quantity not negative");
+        }
+        if (price != buyPrice) {
+            buyCredit = 0;
+        }
+        buyPrice = price;
+        buyQuantity = quantity;
+    }
+
+    /**
+     * Offers {@code quantity} units at {@code price}; only units already held ever fill.
+     */
+    public void sell(int price, long quantity) {
+        if (price <= 0 || quantity < 0) {
+            throw new IllegalArgumentException("price must be positive and quantity not negative");
+        }
+        if (price != sellPrice) {
+            sellCredit = 0;
+        }
+        sellPrice = price;
+        sellQuantity = quantity;
+    }
+
+    public void cancelBuy() {
+        buyQuantity = 0;
+        buyCredit = 0;
+    }
+
+    public void cancelSell() {
+        sellQuantity = 0;
+        sellCredit = 0;
+    }
+
+    /**
+     * Fills the standing offers against one bucket and then makes it the current bucket.
+     */
+    void advance(long bucketTimestamp, int avgHigh, int avgLow, long highVolume, long lowVolume) {
+        timestamp = bucketTimestamp;
+        avgHighPrice = avgHigh;
+        avgLowPrice = avgLow;
+        highPriceVolume = highVolume;
+        lowPriceVolume = lowVolume;
+        if (buyQuantity > 0) {
+            fillBuy();
+        }
+        if (sellQuantity > 0 && inventory > 0) {
+            fillSell();
+        }
+        if (avgHigh > 0) {
+            lastHighPrice = avgHigh;
+        }
+        if (avgLow > 0) {
+            lastLowPrice = avgLow;
+        }
+    }
+
+    private void fillBuy() {
+        if (avgLowPrice <= 0 || avgLowPrice > buyPrice || lowPriceVolume <= 0) {
+            return;
+        }
+        // Fractional shares of thin buckets accumulate while the offer stands at the same price, so slow items
+        // still fill eventually; whole units a bucket could not use expire with it.
+        buyCredit += lowPriceVolume * participation;
+        long quantity = Math.min(buyQuantity, Math.min((long) buyCredit, getRemainingLimit()));
+        buyCredit -= (long) buyCredit;
+        if (quantity <= 0) {
+            return;
+        }
+        if (buyLimit > 0 && timestamp >= limitWindowStart + LIMIT_WINDOW_SECONDS) {
+            limitWindowStart = timestamp;
+            boughtInWindow = 0;
+        }
+        buyQuantity -= quantity;
+        boughtInWindow += quantity;
+        bought += quantity;
+        inventory += quantity;
+        costBasis += (long) buyPrice * quantity;
+    }
+
+    private void fillSell() {
+        if (avgHighPrice <= 0 || avgHighPrice < sellPrice || highPriceVolume <= 0) {
+            return;
+        }
+        sellCredit += highPriceVolume * participation;
+        long quantity = Math.min(Math.min(sellQuantity, inventory), (long) sellCredit);
+        sellCredit -= (long) sellCredit;
+        if (quantity <= 0) {
+            return;
+        }
+        long cost = costBasis * quantity / inventory;
+        long tax = (long) GeTax.perUnit(sellPrice) * quantity;
+        sellQuantity -= quantity;
+        sold += quantity;
+        inventory -= quantity;
+        costBasis -= cost;
+        taxPaid += tax;
+        realizedProfit += (long) sellPrice * quantity - tax - cost;
+    }
+
+    long getCostBasis() {
+        return costBasis;
+    }
+
+    long getTaxPaid() {
+        return taxPaid;
+    }
+
+    long getBought() {
+        return bought;
+    }
+
+    long getSold() {
+        return sold;
+    }
+
+    /**
+     * What the held units would fetch after tax at the last high price (or low, if no high was seen),
+     * minus what they cost.
+     */
+    long unrealizedProfit() {
+        if (inventory == 0) {
+            return 0L;
+        }
+        int price = lastHighPrice > 0 ? lastHighPrice : lastLowPrice;
+        long value = price > 0 ? (long) GeTax.afterTax(price) * inventory : 0L;
+        return value - costBasis;
+    }
+}
@@ -0,0 +1,26 @@
+package com.harmony.flipper.backtest;
+
+/**
+ * Trading rules replayed by {@link Backtester}.
+ * <p>
+ * Items are replayed independently and in parallel, so everything a strategy remembers about an item must
+ * live in the {@link Trader} it returns for that item.
+ */
+public interface Strategy {
+
+    /**
+     * Starts trading one item; returns {@code null} to leave the item alone.
+     *
+     * @param buyLimit GE buy limit per four hours, or {@link com.harmony.flipper.data.Table#MISSING} when unknown
+     */
+    Trader begin(int itemId, int buyLimit);
+
+    interface Trader {
+
+        /**
+         * Called once per bucket after the bucket's fills have been applied. Orders placed here start
+         * filling from the next bucket.
+         */
+        void onBucket(Market market);
+    }
+}
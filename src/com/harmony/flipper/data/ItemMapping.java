@@ -15,6 +15,22 @@ public final class ItemMapping {
     private String icon;
     private String name;
 
+    private ItemMapping() {
+    }
+
+    public ItemMapping(int id, String name, String examine, boolean members, Integer lowAlch, Integer highAlch,
+                       Integer value, Integer limit, String icon) {
+        this.id = id;
+        this.name = name;
+        this.examine = examine;
+        this.members = members;
+        this.lowAlch = lowAlch;
+        this.highAlch = highAlch;
+        this.value = value;
+        this.limit = limit;
+        this.icon = icon;
+    }
+
     public String getExamine() {
         return examine;
     }
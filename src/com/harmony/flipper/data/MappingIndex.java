@@ -0,0 +1,161 @@
+package com.harmony.flipper.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lookups over the item mapping by id, by name and by name prefix, built once per mapping.
+ * <p>
+ * Ids index straight into an array. Names are matched ignoring case: exact names through a hash map and
+ * prefixes by binary search over the names in sorted order, so a prefix query costs O(log n) plus the
+ * matches returned. When two items share a name the one with the lower id wins the exact lookup; prefix
+ * queries return both. Items whose id lies outside {@code [0, Table.ID_LIMIT)} are left out, as in {@link Table}.
+ */
+public final class MappingIndex {
+
+    private static final MappingIndex EMPTY = new MappingIndex(new ItemMapping[0], Collections.emptyMap(),
+            new String[0], new ItemMapping[0]);
+
+    private final ItemMapping[] byId;
+    private final Map<String, ItemMapping> byName;
+    private final String[] sortedNames;
+    private final ItemMapping[] sortedItems;
+
+    private MappingIndex(ItemMapping[] byId, Map<String, ItemMapping> byName, String[] sortedNames, ItemMapping[] sortedItems) {
+        this.byId = byId;
+        this.byName = byName;
+        this.sortedNames = sortedNames;
+        this.sortedItems = sortedItems;
+    }
+
+    public static MappingIndex of(List<ItemMapping> mapping) {
+        if (mapping == null || mapping.isEmpty()) {
+            return EMPTY;
+        }
+        int capacity = 0;
+        int named = 0;
+        for (ItemMapping item : mapping) {
+            if (item != null && Table.isIndexable(item.getId())) {
+                capacity = Math.max(capacity, item.getId() + 1);
+                if (item.getName() != null) {
+                    named++;
+                }
+            }
+        }
+        ItemMapping[] byId = new ItemMapping[capacity];
+        ItemMapping[] sorted = new ItemMapping[named];
+        int count = 0;
+        for (ItemMapping item : mapping) {
+            if (item != null && Table.isIndexable(item.getId())) {
+                byId[item.getId()] = item;
+                if (item.getName() != null) {
+                    sorted[count++] = item;
+                }
+            }
+        }
+        // Sorting by (normalized name, id) makes the first of each equal-name run the lowest id.
+        String[] keys = new String[count];
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = normalize(sorted[i].getName());
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byKey = keys[a].compareTo(keys[b]);
+            return byKey != 0 ? byKey : Integer.compare(sorted[a].getId(), sorted[b].getId());
+        });
+        String[] sortedNames = new String[count];
+        ItemMapping[] sortedItems = new ItemMapping[count];
+        Map<String, ItemMapping> byName = new HashMap<>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            sortedNames[i] = keys[order[i]];
+            sortedItems[i] = sorted[order[i]];
+            byName.putIfAbsent(sortedNames[i], sortedItems[i]);
+        }
+        return new MappingIndex(byId, byName, sortedNames, sortedItems);
+    }
+
+    public int size() {
+        return sortedItems.length;
+    }
+
+    /**
+     * Mapping for {@code itemId}, or {@code null} when unknown.
+     */
+    public ItemMapping get(int itemId) {
+        return itemId >= 0 && itemId < byId.length ? byId[itemId] : null;
+    }
+
+    /**
+     * Item whose name equals {@code name} ignoring case and surrounding whitespace, or {@code null}.
+     */
+    public ItemMapping byName(String name) {
+        return name == null ? null : byName.get(normalize(name));
+    }
+
+    /**
+     * Up to {@code limit} items whose name starts with {@code prefix} ignoring case, in name order.
+     */
+    public List<ItemMapping> byPrefix(String prefix, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        if (prefix == null) {
+            return Collections.emptyList();
+        }
+        String key = normalize(prefix);
+        int from = lowerBound(key);
+        List<ItemMapping> matches = new ArrayList<>(Math.min(limit, 16));
+        for (int i = from; i < sortedNames.length && matches.size() < limit && sortedNames[i].startsWith(key); i++) {
+            matches.add(sortedItems[i]);
+        }
+        return matches;
+    }
+
+    /**
+     * Number of items whose name starts with {@code prefix} ignoring case.
+     */
+    public int countPrefix(String prefix) {
+        if (prefix == null) {
+            return 0;
+        }
+        String key = normalize(prefix);
+        int from = lowerBound(key);
+        if (key.isEmpty()) {
+            return sortedNames.length - from;
+        }
+        // Every name with the prefix sorts before the prefix with its last character bumped.
+        char last = key.charAt(key.length() - 1);
+        if (last == Character.MAX_VALUE) {
+            int to = from;
+            while (to < sortedNames.length && sortedNames[to].startsWith(key)) {
+                to++;
+            }
+            return to - from;
+        }
+        return lowerBound(key.substring(0, key.length() - 1) + (char) (last + 1)) - from;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = sortedNames.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedNames[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
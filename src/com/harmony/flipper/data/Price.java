@@ -11,6 +11,16 @@ public final class Price {
         private Integer low;
         private Long lowTime;
 
+        private Latest() {
+        }
+
+        public Latest(Integer high, Long highTime, Integer low, Long lowTime) {
+            this.high = high;
+            this.highTime = highTime;
+            this.low = low;
+            this.lowTime = lowTime;
+        }
+
         public Integer getHigh() {
             return high;
         }
@@ -34,6 +44,16 @@ public final class Price {
         private Integer avgLowPrice;
         private Long lowPriceVolume;
 
+        private Aggregate() {
+        }
+
+        public Aggregate(Integer avgHighPrice, Long highPriceVolume, Integer avgLowPrice, Long lowPriceVolume) {
+            this.avgHighPrice = avgHighPrice;
+            this.highPriceVolume = highPriceVolume;
+            this.avgLowPrice = avgLowPrice;
+            this.lowPriceVolume = lowPriceVolume;
+        }
+
         public Integer getAvgHighPrice() {
             return avgHighPrice;
         }
@@ -24,9 +24,21 @@ public final class Response {
             return data;
         }
 
+        /**
+         * Wraps {@code data} without copying it; the caller must not modify it afterwards.
+         */
+        public static Latest of(Map<Integer, Price.Latest> data) {
+            return new Latest(data == null || data.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(data));
+        }
+
+        /**
+         * Copies a map keyed by the API's string item ids.
+         *
+         * @deprecated the transport now decodes integer ids; use {@link #of(Map)}. To be removed in the next release.
+         */
+        @Deprecated
         public static Latest fromRaw(Map<String, Price.Latest> raw) {
-            Map<Integer, Price.Latest> converted = convertPriceMap(raw);
-            return new Latest(converted);
+            return of(convertIds(raw));
         }
     }
 
@@ -47,9 +59,22 @@ public final class Response {
             return data;
         }
 
+        /**
+         * Wraps {@code data} without copying it; the caller must not modify it afterwards.
+         */
+        public static Aggregate of(long timestamp, Map<Integer, Price.Aggregate> data) {
+            return new Aggregate(timestamp, data == null || data.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(data));
+        }
+
+        /**
+         * Copies a map keyed by the API's string item ids.
+         *
+         * @deprecated the transport now decodes integer ids; use {@link #of(long, Map)}. To be removed in the
+         * next release.
+         */
+        @Deprecated
         public static Aggregate fromRaw(long timestamp, Map<String, Price.Aggregate> raw) {
-            Map<Integer, Price.Aggregate> converted = convertAggregateMap(raw);
-            return new Aggregate(timestamp, converted);
+            return of(timestamp, convertIds(raw));
         }
     }
 
@@ -70,9 +95,22 @@ public final class Response {
             return data;
         }
 
+        /**
+         * Wraps {@code data} without copying it; the caller must not modify it afterwards.
+         */
+        public static Volume of(long timestamp, Map<Integer, Long> data) {
+            return new Volume(timestamp, data == null || data.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(data));
+        }
+
+        /**
+         * Copies a map keyed by the API's string item ids.
+         *
+         * @deprecated the transport now decodes integer ids; use {@link #of(long, Map)}. To be removed in the
+         * next release.
+         */
+        @Deprecated
         public static Volume fromRaw(long timestamp, Map<String, Long> raw) {
-            Map<Integer, Long> converted = convertVolumeMap(raw);
-            return new Volume(timestamp, converted);
+            return of(timestamp, convertIds(raw));
         }
     }
 
@@ -93,48 +131,36 @@ public final class Response {
             return data;
         }
 
-        public static Timeseries fromRaw(int itemId, List<Time.Series> raw) {
-            if (raw == null || raw.isEmpty()) {
-                return new Timeseries(itemId, Collections.emptyList());
-            }
-            return new Timeseries(itemId, Collections.unmodifiableList(new ArrayList<>(raw)));
-        }
-    }
-
-    private static Map<Integer, Price.Latest> convertPriceMap(Map<String, Price.Latest> raw) {
-        if (raw == null || raw.isEmpty()) {
-            return Collections.emptyMap();
-        }
-        Map<Integer, Price.Latest> converted = new LinkedHashMap<>(raw.size());
-        for (Map.Entry<String, Price.Latest> entry : raw.entrySet()) {
-            converted.put(parseItemId(entry.getKey()), entry.getValue());
+        /**
+         * Wraps {@code data} without copying it; the caller must not modify it afterwards.
+         */
+        public static Timeseries of(int itemId, List<Time.Series> data) {
+            return new Timeseries(itemId, data == null || data.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(data));
         }
-        return Collections.unmodifiableMap(converted);
-    }
 
-    private static Map<Integer, Price.Aggregate> convertAggregateMap(Map<String, Price.Aggregate> raw) {
-        if (raw == null || raw.isEmpty()) {
-            return Collections.emptyMap();
-        }
-        Map<Integer, Price.Aggregate> converted = new LinkedHashMap<>(raw.size());
-        for (Map.Entry<String, Price.Aggregate> entry : raw.entrySet()) {
-            converted.put(parseItemId(entry.getKey()), entry.getValue());
+        /**
+         * Copies {@code raw}.
+         *
+         * @deprecated use {@link #of(int, List)}, which wraps the list instead. To be removed in the next release.
+         */
+        @Deprecated
+        public static Timeseries fromRaw(int itemId, List<Time.Series> raw) {
+            return of(itemId, raw == null ? null : new ArrayList<>(raw));
         }
-        return Collections.unmodifiableMap(converted);
     }
 
-    private static Map<Integer, Long> convertVolumeMap(Map<String, Long> raw) {
+    private static <V> Map<Integer, V> convertIds(Map<String, V> raw) {
         if (raw == null || raw.isEmpty()) {
-            return Collections.emptyMap();
+            return null;
         }
-        Map<Integer, Long> converted = new LinkedHashMap<>(raw.size());
-        for (Map.Entry<String, Long> entry : raw.entrySet()) {
+        Map<Integer, V> converted = new LinkedHashMap<>(raw.size());
+        for (Map.Entry<String, V> entry : raw.entrySet()) {
             converted.put(parseItemId(entry.getKey()), entry.getValue());
         }
-        return Collections.unmodifiableMap(converted);
+        return converted;
     }
 
-    private static int parseItemId(String rawId) {
+    static int parseItemId(String rawId) {
         try {
             return Integer.parseInt(rawId);
         } catch (NumberFormatException ex) {
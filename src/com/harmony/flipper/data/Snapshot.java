@@ -19,6 +19,12 @@ public final class Snapshot {
     private final Volume volumes;
     private final List<ItemMapping> mapping;
     private final Map<Integer, Timeseries> timeseries;
+    private volatile Table.Latest latestTable;
+    private volatile Table.Aggregate fiveMinuteTable;
+    private volatile Table.Aggregate oneHourTable;
+    private volatile Table.Volume volumeTable;
+    private volatile Table.Limit limitTable;
+    private volatile MappingIndex mappingIndex;
 
     public Snapshot(Latest latest,
                     Aggregate fiveMinute,
@@ -26,12 +32,57 @@ public final class Snapshot {
                     Volume volumes,
                     List<ItemMapping> mapping,
                     Map<Integer, Timeseries> timeseries) {
+        this(latest, fiveMinute, oneHour, volumes, mapping, timeseries, true);
+    }
+
+    private Snapshot(Latest latest,
+                     Aggregate fiveMinute,
+                     Aggregate oneHour,
+                     Volume volumes,
+                     List<ItemMapping> mapping,
+                     Map<Integer, Timeseries> timeseries,
+                     boolean copy) {
         this.latest = latest;
         this.fiveMinute = fiveMinute;
         this.oneHour = oneHour;
         this.volumes = volumes;
-        this.mapping = mapping == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(mapping));
-        this.timeseries = timeseries == null ? Collections.emptyMap() : Collections.unmodifiableMap(new LinkedHashMap<>(timeseries));
+        this.mapping = mapping == null ? Collections.emptyList()
+                : Collections.unmodifiableList(copy ? new ArrayList<>(mapping) : mapping);
+        this.timeseries = timeseries == null ? Collections.emptyMap()
+                : Collections.unmodifiableMap(copy ? new LinkedHashMap<>(timeseries) : timeseries);
+    }
+
+    /**
+     * Takes ownership of {@code mapping} and {@code timeseries} instead of copying them, as the
+     * public constructor does; the caller must not modify either afterwards.
+     * <p>
+     * The snapshot only wraps them, so a later change shows through {@link #getMapping()} and
+     * {@link #getTimeseries()} and is missed by the tables and mapping index already built from them. Callers
+     * that keep using their collections must go through the constructor instead.
+     */
+    public static Snapshot of(Latest latest,
+                              Aggregate fiveMinute,
+                              Aggregate oneHour,
+                              Volume volumes,
+                              List<ItemMapping> mapping,
+                              Map<Integer, Timeseries> timeseries) {
+        return new Snapshot(latest, fiveMinute, oneHour, volumes, mapping, timeseries, false);
+    }
+
+    /**
+     * Same as {@link #of(Latest, Aggregate, Aggregate, Volume, List, Map)}, but reuses {@code mappingIndex},
+     * which must index {@code mapping}, instead of building one per snapshot.
+     */
+    public static Snapshot of(Latest latest,
+                              Aggregate fiveMinute,
+                              Aggregate oneHour,
+                              Volume volumes,
+                              List<ItemMapping> mapping,
+                              Map<Integer, Timeseries> timeseries,
+                              MappingIndex mappingIndex) {
+        Snapshot snapshot = of(latest, fiveMinute, oneHour, volumes, mapping, timeseries);
+        snapshot.mappingIndex = mappingIndex;
+        return snapshot;
     }
 
     public Latest getLatest() {
@@ -57,4 +108,58 @@ public final class Snapshot {
     public Map<Integer, Timeseries> getTimeseries() {
         return timeseries;
     }
+
+    public Table.Latest getLatestTable() {
+        Table.Latest table = latestTable;
+        if (table == null) {
+            table = Table.Latest.of(latest);
+            latestTable = table;
+        }
+        return table;
+    }
+
+    public Table.Aggregate getFiveMinuteTable() {
+        Table.Aggregate table = fiveMinuteTable;
+        if (table == null) {
+            table = Table.Aggregate.of(fiveMinute);
+            fiveMinuteTable = table;
+        }
+        return table;
+    }
+
+    public Table.Aggregate getOneHourTable() {
+        Table.Aggregate table = oneHourTable;
+        if (table == null) {
+            table = Table.Aggregate.of(oneHour);
+            oneHourTable = table;
+        }
+        return table;
+    }
+
+    public Table.Volume getVolumeTable() {
+        Table.Volume table = volumeTable;
+        if (table == null) {
+            table = Table.Volume.of(volumes);
+            volumeTable = table;
+        }
+        return table;
+    }
+
+    public Table.Limit getLimitTable() {
+        Table.Limit table = limitTable;
+        if (table == null) {
+            table = Table.Limit.of(mapping);
+            limitTable = table;
+        }
+        return table;
+    }
+
+    public MappingIndex getMappingIndex() {
+        MappingIndex index = mappingIndex;
+        if (index == null) {
+            index = MappingIndex.of(mapping);
+            mappingIndex = index;
+        }
+        return index;
+    }
 }
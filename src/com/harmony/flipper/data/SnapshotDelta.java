@@ -0,0 +1,143 @@
+package com.harmony.flipper.data;
+
+import java.util.Objects;
+
+/**
+ * Item ids whose prices or volume moved between two polls, so scanners can re-evaluate only those.
+ * <p>
+ * A side counts as changed when either its price or its trade time differs; a new trade at the same
+ * price therefore still shows up. Ids are reported in ascending order together with a bit set of
+ * {@link #HIGH}, {@link #LOW}, {@link #VOLUME}, {@link #ADDED} and {@link #REMOVED}.
+ */
+public final class SnapshotDelta {
+
+    public static final int HIGH = 1;
+    public static final int LOW = 1 << 1;
+    public static final int VOLUME = 1 << 2;
+    public static final int ADDED = 1 << 3;
+    public static final int REMOVED = 1 << 4;
+
+    private static final SnapshotDelta EMPTY = new SnapshotDelta(new int[0], new int[0]);
+
+    private final int[] ids;
+    private final int[] flags;
+
+    private SnapshotDelta(int[] ids, int[] flags) {
+        this.ids = ids;
+        this.flags = flags;
+    }
+
+    public static SnapshotDelta between(Snapshot previous, Snapshot next) {
+        Objects.requireNonNull(previous, "previous");
+        Objects.requireNonNull(next, "next");
+        return between(previous.getLatestTable(), next.getLatestTable(), previous.getVolumeTable(), next.getVolumeTable());
+    }
+
+    public static SnapshotDelta between(Snapshot previous, Response.Latest latest) {
+        Objects.requireNonNull(previous, "previous");
+        return between(previous.getLatestTable(), Table.Latest.of(latest), null, null);
+    }
+
+    /**
+     * Compares two latest tables and, when both are given, two volume tables.
+     */
+    public static SnapshotDelta between(Table.Latest previous,
+                                        Table.Latest next,
+                                        Table.Volume previousVolumes,
+                                        Table.Volume nextVolumes) {
+        Objects.requireNonNull(previous, "previous");
+        Objects.requireNonNull(next, "next");
+        boolean volumes = previousVolumes != null && nextVolumes != null;
+        int capacity = Math.max(previous.capacity(), next.capacity());
+        if (volumes) {
+            capacity = Math.max(capacity, Math.max(previousVolumes.capacity(), nextVolumes.capacity()));
+        }
+        if (capacity == 0) {
+            return EMPTY;
+        }
+
+        int[] changed = new int[capacity];
+        int count = 0;
+        for (int i = 0; i < next.size(); i++) {
+            int id = next.idAt(i);
+            int mask;
+            if (!previous.contains(id)) {
+                mask = ADDED | HIGH | LOW;
+            } else {
+                mask = 0;
+                if (previous.getHigh(id) != next.getHigh(id) || previous.getHighTime(id) != next.getHighTime(id)) {
+                    mask |= HIGH;
+                }
+                if (previous.getLow(id) != next.getLow(id) || previous.getLowTime(id) != next.getLowTime(id)) {
+                    mask |= LOW;
+                }
+            }
+            if (mask != 0 && changed[id] == 0) {
+                count++;
+            }
+            changed[id] |= mask;
+        }
+        for (int i = 0; i < previous.size(); i++) {
+            int id = previous.idAt(i);
+            if (!next.contains(id)) {
+                if (changed[id] == 0) {
+                    count++;
+                }
+                changed[id] |= REMOVED;
+            }
+        }
+        if (volumes) {
+            count += markVolumes(previousVolumes, nextVolumes, changed);
+            count += markVolumes(nextVolumes, previousVolumes, changed);
+        }
+        if (count == 0) {
+            return EMPTY;
+        }
+
+        int[] ids = new int[count];
+        int[] flags = new int[count];
+        int index = 0;
+        for (int id = 0; id < capacity && index < count; id++) {
+            if (changed[id] != 0) {
+                ids[index] = id;
+                flags[index] = changed[id];
+                index++;
+            }
+        }
+        return new SnapshotDelta(ids, flags);
+    }
+
+    private static int markVolumes(Table.Volume from, Table.Volume to, int[] changed) {
+        int added = 0;
+        for (int i = 0; i < from.size(); i++) {
+            int id = from.idAt(i);
+            if (from.getVolume(id) != to.getVolume(id) && (changed[id] & VOLUME) == 0) {
+                if (changed[id] == 0) {
+                    added++;
+                }
+                changed[id] |= VOLUME;
+            }
+        }
+        return added;
+    }
+
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int idAt(int index) {
+        return ids[index];
+    }
+
+    public int flagsAt(int index) {
+        return flags[index];
+    }
+
+    public int[] getIds() {
+        return ids.clone();
+    }
+}
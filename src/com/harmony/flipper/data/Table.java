@@ -0,0 +1,308 @@
+package com.harmony.flipper.data;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Columnar, item-id indexed views of the bulk price responses.
+ * <p>
+ * Every column is a primitive array indexed directly by item id, so lookups neither box the key nor
+ * chase pointers. Absent items and {@code null} API fields read as {@link #MISSING}. Ids outside
+ * {@code [0, ID_LIMIT)} are left out, so one bogus id cannot size every column.
+ */
+public final class Table {
+
+    public static final int MISSING = -1;
+    /**
+     * Exclusive upper bound on indexed item ids, far above any real item id.
+     */
+    public static final int ID_LIMIT = 1 << 20;
+
+    private Table() {
+    }
+
+    public static final class Latest {
+        private final int[] ids;
+        private final boolean[] present;
+        private final int[] high;
+        private final long[] highTime;
+        private final int[] low;
+        private final long[] lowTime;
+
+        private Latest(int[] ids) {
+            int capacity = capacityOf(ids);
+            this.ids = ids;
+            this.present = new boolean[capacity];
+            this.high = filled(new int[capacity]);
+            this.highTime = filled(new long[capacity]);
+            this.low = filled(new int[capacity]);
+            this.lowTime = filled(new long[capacity]);
+        }
+
+        public static Latest of(Response.Latest latest) {
+            Map<Integer, Price.Latest> data = latest == null ? null : latest.getData();
+            Latest table = new Latest(sortedIds(data == null ? null : data.keySet()));
+            for (int id : table.ids) {
+                Price.Latest price = data.get(id);
+                table.present[id] = true;
+                if (price != null) {
+                    table.high[id] = orMissing(price.getHigh());
+                    table.highTime[id] = orMissing(price.getHighTime());
+                    table.low[id] = orMissing(price.getLow());
+                    table.lowTime[id] = orMissing(price.getLowTime());
+                }
+            }
+            return table;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        public int idAt(int index) {
+            return ids[index];
+        }
+
+        public int capacity() {
+            return present.length;
+        }
+
+        public boolean contains(int itemId) {
+            return itemId >= 0 && itemId < present.length && present[itemId];
+        }
+
+        public int getHigh(int itemId) {
+            return itemId >= 0 && itemId < high.length ? high[itemId] : MISSING;
+        }
+
+        public long getHighTime(int itemId) {
+            return itemId >= 0 && itemId < highTime.length ? highTime[itemId] : MISSING;
+        }
+
+        public int getLow(int itemId) {
+            return itemId >= 0 && itemId < low.length ? low[itemId] : MISSING;
+        }
+
+        public long getLowTime(int itemId) {
+            return itemId >= 0 && itemId < lowTime.length ? lowTime[itemId] : MISSING;
+        }
+    }
+
+    public static final class Aggregate {
+        private final long timestamp;
+        private final int[] ids;
+        private final boolean[] present;
+        private final int[] avgHighPrice;
+        private final long[] highPriceVolume;
+        private final int[] avgLowPrice;
+        private final long[] lowPriceVolume;
+
+        private Aggregate(long timestamp, int[] ids) {
+            int capacity = capacityOf(ids);
+            this.timestamp = timestamp;
+            this.ids = ids;
+            this.present = new boolean[capacity];
+            this.avgHighPrice = filled(new int[capacity]);
+            this.highPriceVolume = filled(new long[capacity]);
+            this.avgLowPrice = filled(new int[capacity]);
+            this.lowPriceVolume = filled(new long[capacity]);
+        }
+
+        public static Aggregate of(Response.Aggregate aggregate) {
+            Map<Integer, Price.Aggregate> data = aggregate == null ? null : aggregate.getData();
+            long timestamp = aggregate == null ? 0L : aggregate.getTimestamp();
+            Aggregate table = new Aggregate(timestamp, sortedIds(data == null ? null : data.keySet()));
+            for (int id : table.ids) {
+                Price.Aggregate price = data.get(id);
+                table.present[id] = true;
+                if (price != null) {
+                    table.avgHighPrice[id] = orMissing(price.getAvgHighPrice());
+                    table.highPriceVolume[id] = orMissing(price.getHighPriceVolume());
+                    table.avgLowPrice[id] = orMissing(price.getAvgLowPrice());
+                    table.lowPriceVolume[id] = orMissing(price.getLowPriceVolume());
+                }
+            }
+            return table;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        public int idAt(int index) {
+            return ids[index];
+        }
+
+        public int capacity() {
+            return present.length;
+        }
+
+        public boolean contains(int itemId) {
+            return itemId >= 0 && itemId < present.length && present[itemId];
+        }
+
+        public int getAvgHighPrice(int itemId) {
+            return itemId >= 0 && itemId < avgHighPrice.length ? avgHighPrice[itemId] : MISSING;
+        }
+
+        public long getHighPriceVolume(int itemId) {
+            return itemId >= 0 && itemId < highPriceVolume.length ? highPriceVolume[itemId] : MISSING;
+        }
+
+        public int getAvgLowPrice(int itemId) {
+            return itemId >= 0 && itemId < avgLowPrice.length ? avgLowPrice[itemId] : MISSING;
+        }
+
+        public long getLowPriceVolume(int itemId) {
+            return itemId >= 0 && itemId < lowPriceVolume.length ? lowPriceVolume[itemId] : MISSING;
+        }
+    }
+
+    public static final class Volume {
+        private final long timestamp;
+        private final int[] ids;
+        private final long[] volume;
+
+        private Volume(long timestamp, int[] ids) {
+            this.timestamp = timestamp;
+            this.ids = ids;
+            this.volume = filled(new long[capacityOf(ids)]);
+        }
+
+        public static Volume of(Response.Volume volumes) {
+            Map<Integer, Long> data = volumes == null ? null : volumes.getData();
+            long timestamp = volumes == null ? 0L : volumes.getTimestamp();
+            Volume table = new Volume(timestamp, sortedIds(data == null ? null : data.keySet()));
+            for (int id : table.ids) {
+                table.volume[id] = orMissing(data.get(id));
+            }
+            return table;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        public int idAt(int index) {
+            return ids[index];
+        }
+
+        public int capacity() {
+            return volume.length;
+        }
+
+        public boolean contains(int itemId) {
+            return Arrays.binarySearch(ids, itemId) >= 0;
+        }
+
+        public long getVolume(int itemId) {
+            return itemId >= 0 && itemId < volume.length ? volume[itemId] : MISSING;
+        }
+    }
+
+    /**
+     * GE buy limits from the item mapping; items without a known limit read as {@link #MISSING}.
+     */
+    public static final class Limit {
+        private final int[] ids;
+        private final int[] limit;
+
+        private Limit(int[] ids) {
+            this.ids = ids;
+            this.limit = filled(new int[capacityOf(ids)]);
+        }
+
+        public static Limit of(List<ItemMapping> mapping) {
+            if (mapping == null || mapping.isEmpty()) {
+                return new Limit(new int[0]);
+            }
+            int[] ids = new int[mapping.size()];
+            int count = 0;
+            for (ItemMapping item : mapping) {
+                if (item != null && isIndexable(item.getId())) {
+                    ids[count++] = item.getId();
+                }
+            }
+            ids = Arrays.stream(ids, 0, count).sorted().distinct().toArray();
+            Limit table = new Limit(ids);
+            for (ItemMapping item : mapping) {
+                if (item != null && isIndexable(item.getId())) {
+                    table.limit[item.getId()] = orMissing(item.getLimit());
+                }
+            }
+            return table;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        public int idAt(int index) {
+            return ids[index];
+        }
+
+        public int capacity() {
+            return limit.length;
+        }
+
+        public boolean contains(int itemId) {
+            return Arrays.binarySearch(ids, itemId) >= 0;
+        }
+
+        public int getLimit(int itemId) {
+            return itemId >= 0 && itemId < limit.length ? limit[itemId] : MISSING;
+        }
+    }
+
+    public static boolean isIndexable(int itemId) {
+        return itemId >= 0 && itemId < ID_LIMIT;
+    }
+
+    private static int[] sortedIds(Set<Integer> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return new int[0];
+        }
+        int[] ids = new int[keys.size()];
+        int count = 0;
+        for (Integer key : keys) {
+            if (key != null && isIndexable(key)) {
+                ids[count++] = key;
+            }
+        }
+        ids = count == ids.length ? ids : Arrays.copyOf(ids, count);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private static int capacityOf(int[] sortedIds) {
+        return sortedIds.length == 0 ? 0 : sortedIds[sortedIds.length - 1] + 1;
+    }
+
+    private static int[] filled(int[] column) {
+        Arrays.fill(column, MISSING);
+        return column;
+    }
+
+    private static long[] filled(long[] column) {
+        Arrays.fill(column, MISSING);
+        return column;
+    }
+
+    private static int orMissing(Integer value) {
+        return value == null ? MISSING : value;
+    }
+
+    private static long orMissing(Long value) {
+        return value == null ? MISSING : value;
+    }
+}
@@ -12,6 +12,18 @@ public final class Time {
         private Long highPriceVolume;
         private Long lowPriceVolume;
 
+        private Series() {
+        }
+
+        public Series(long timestamp, Integer avgHighPrice, Integer avgLowPrice, Long highPriceVolume,
+                      Long lowPriceVolume) {
+            this.timestamp = timestamp;
+            this.avgHighPrice = avgHighPrice;
+            this.avgLowPrice = avgLowPrice;
+            this.highPriceVolume = highPriceVolume;
+            this.lowPriceVolume = lowPriceVolume;
+        }
+
         public long getTimestamp() {
             return timestamp;
         }
@@ -34,18 +46,24 @@ public final class Time {
     }
 
     public enum Step {
-        FIVE_MINUTES("5m"),
-        ONE_HOUR("1h"),
-        SIX_HOURS("6h");
+        FIVE_MINUTES("5m", 300L),
+        ONE_HOUR("1h", 3_600L),
+        SIX_HOURS("6h", 21_600L);
 
         private final String value;
+        private final long seconds;
 
-        Step(String value) {
+        Step(String value, long seconds) {
             this.value = value;
+            this.seconds = seconds;
         }
 
         public String getValue() {
             return value;
         }
+
+        public long getSeconds() {
+            return seconds;
+        }
     }
 }
@@ -0,0 +1,283 @@
+package com.harmony.flipper.net;
+
+import com.harmony.flipper.data.ItemMapping;
+import com.harmony.flipper.data.MappingIndex;
+import com.harmony.flipper.data.Response;
+import com.harmony.flipper.data.Snapshot;
+import com.harmony.flipper.data.Time;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache in front of {@link OsrsWikiClient} with a freshness window per endpoint.
+ * <p>
+ * A value past its window but still inside the stale window is returned immediately while a single
+ * background refresh runs. Concurrent callers asking for the same endpoint share one request.
+ */
+public final class OsrsWikiCache {
+
+    private static final Duration DEFAULT_LATEST_TTL = Duration.ofSeconds(60);
+    private static final Duration VOLUMES_TTL = Duration.ofHours(1);
+    private static final Duration MAPPING_TTL = Duration.ofDays(1);
+    // Buckets are published shortly after they close; retry at this pace while the API lags behind.
+    private static final long BUCKET_RETRY_MILLIS = 15_000L;
+    private static final long BUCKET_PUBLISH_DELAY_MILLIS = 5_000L;
+
+    private final OsrsWikiClient client;
+    private final Clock clock;
+    private final long latestTtlMillis;
+    private final Map<String, Entry<?>> entries = new ConcurrentHashMap<>();
+    private volatile IndexedMapping indexedMapping;
+
+    public OsrsWikiCache(OsrsWikiClient client) {
+        this(client, Clock.systemUTC(), DEFAULT_LATEST_TTL);
+    }
+
+    public OsrsWikiCache(OsrsWikiClient client, Clock clock, Duration latestTtl) {
+        this.client = Objects.requireNonNull(client, "client");
+        this.clock = Objects.requireNonNull(clock, "clock");
+        Duration ttl = Objects.requireNonNull(latestTtl, "latestTtl");
+        if (ttl.isZero() || ttl.isNegative()) {
+            throw new IllegalArgumentException("latestTtl must be positive");
+        }
+        this.latestTtlMillis = ttl.toMillis();
+    }
+
+    public OsrsWikiClient getClient() {
+        return client;
+    }
+
+    public Response.Latest getLatest() {
+        return OsrsWikiClient.join(getLatestAsync());
+    }
+
+    public Response.Aggregate getFiveMinutePrices() {
+        return OsrsWikiClient.join(getFiveMinutePricesAsync());
+    }
+
+    public Response.Aggregate getOneHourPrices() {
+        return OsrsWikiClient.join(getOneHourPricesAsync());
+    }
+
+    public Response.Volume getVolumes() {
+        return OsrsWikiClient.join(getVolumesAsync());
+    }
+
+    public List<ItemMapping> getMapping() {
+        return OsrsWikiClient.join(getMappingAsync());
+    }
+
+    /**
+     * Same freshness rules as {@link #getLatest()} without blocking: a fresh or merely stale value completes
+     * the future at once, otherwise it completes when the refresh does.
+     */
+    public CompletableFuture<Response.Latest> getLatestAsync() {
+        return getAsync("latest", client::getLatestAsync, latestExpiry(), latestTtlMillis);
+    }
+
+    public CompletableFuture<Response.Aggregate> getFiveMinutePricesAsync() {
+        long bucketMillis = Time.Step.FIVE_MINUTES.getSeconds() * 1000L;
+        return getAsync("5m", client::getFiveMinutePricesAsync, bucketExpiry(bucketMillis), bucketMillis);
+    }
+
+    public CompletableFuture<Response.Aggregate> getOneHourPricesAsync() {
+        long bucketMillis = Time.Step.ONE_HOUR.getSeconds() * 1000L;
+        return getAsync("1h", client::getOneHourPricesAsync, bucketExpiry(bucketMillis), bucketMillis);
+    }
+
+    public CompletableFuture<Response.Volume> getVolumesAsync() {
+        long ttl = VOLUMES_TTL.toMillis();
+        return getAsync("volumes", client::getVolumesAsync, (value, fetchedAt) -> fetchedAt + ttl, ttl);
+    }
+
+    public CompletableFuture<List<ItemMapping>> getMappingAsync() {
+        long ttl = MAPPING_TTL.toMillis();
+        return getAsync("mapping", client::getMappingAsync, (value, fetchedAt) -> fetchedAt + ttl, ttl);
+    }
+
+    /**
+     * Requests /latest now, whatever the cached value's age, and stores the answer; a refresh already in
+     * flight is shared. This is how {@link PollingScheduler} keeps the entry current.
+     */
+    public CompletableFuture<Response.Latest> refreshLatest() {
+        return refresh(entry("latest"), client::getLatestAsync, latestExpiry(), true);
+    }
+
+    public CompletableFuture<Response.Aggregate> refreshFiveMinutePrices() {
+        return refresh(entry("5m"), client::getFiveMinutePricesAsync,
+                bucketExpiry(Time.Step.FIVE_MINUTES.getSeconds() * 1000L), true);
+    }
+
+    public CompletableFuture<Response.Aggregate> refreshOneHourPrices() {
+        return refresh(entry("1h"), client::getOneHourPricesAsync,
+                bucketExpiry(Time.Step.ONE_HOUR.getSeconds() * 1000L), true);
+    }
+
+    /**
+     * Index over {@link #getMapping()}, rebuilt only when a refresh yields a different mapping.
+     */
+    public MappingIndex getMappingIndex() {
+        return getMappingIndex(getMapping());
+    }
+
+    /**
+     * Index over {@code mapping}, which should come from this cache; the index of the previous call is
+     * returned as long as the same mapping instance is passed, as it is after a 304.
+     */
+    public MappingIndex getMappingIndex(List<ItemMapping> mapping) {
+        Objects.requireNonNull(mapping, "mapping");
+        IndexedMapping indexed = indexedMapping;
+        if (indexed == null || indexed.mapping != mapping) {
+            indexed = new IndexedMapping(mapping, MappingIndex.of(mapping));
+            indexedMapping = indexed;
+        }
+        return indexed.index;
+    }
+
+    public Response.Timeseries getTimeseries(int itemId, Time.Step step) {
+        Objects.requireNonNull(step, "step");
+        long ttl = step.getSeconds() * 1000L;
+        return OsrsWikiClient.join(getAsync("timeseries:" + itemId + ":" + step.getValue(),
+                () -> client.getTimeseriesAsync(itemId, step),
+                (value, fetchedAt) -> fetchedAt + ttl, ttl));
+    }
+
+    public Snapshot getSnapshot(Iterable<Integer> timeseriesItemIds, Time.Step step) {
+        Map<Integer, Response.Timeseries> series = new LinkedHashMap<>();
+        if (timeseriesItemIds != null && step != null) {
+            for (Integer id : timeseriesItemIds) {
+                if (id != null) {
+                    series.put(id, getTimeseries(id, step));
+                }
+            }
+        }
+        List<ItemMapping> mapping = getMapping();
+        return Snapshot.of(getLatest(), getFiveMinutePrices(), getOneHourPrices(), getVolumes(), mapping, series,
+                getMappingIndex(mapping));
+    }
+
+    /**
+     * Fills empty entries with the parts of {@code snapshot} that are present, for instance one persisted by
+     * the previous run. Seeded values count as already expired: the first read returns them at once and
+     * revalidates them in the background.
+     */
+    public void seed(Snapshot snapshot) {
+        Objects.requireNonNull(snapshot, "snapshot");
+        seed("latest", snapshot.getLatest());
+        seed("5m", snapshot.getFiveMinute());
+        seed("1h", snapshot.getOneHour());
+        seed("volumes", snapshot.getVolumes());
+        seed("mapping", snapshot.getMapping().isEmpty() ? null : snapshot.getMapping());
+    }
+
+    public void invalidate() {
+        entries.clear();
+    }
+
+    private <T> void seed(String key, T value) {
+        if (value == null) {
+            return;
+        }
+        Entry<T> entry = entry(key);
+        synchronized (entry) {
+            if (entry.value == null) {
+                entry.value = value;
+                entry.expiresAt = clock.millis();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Entry<T> entry(String key) {
+        return (Entry<T>) entries.computeIfAbsent(key, ignored -> new Entry<>());
+    }
+
+    private <T> CompletableFuture<T> getAsync(String key, Supplier<CompletableFuture<T>> loader, Expiry<T> expiry,
+                                              long staleMillis) {
+        Entry<T> entry = entry(key);
+        long now = clock.millis();
+        T value = entry.value;
+        if (value != null) {
+            if (now < entry.expiresAt) {
+                return CompletableFuture.completedFuture(value);
+            }
+            if (now < entry.expiresAt + staleMillis) {
+                refresh(entry, loader, expiry, false);
+                return CompletableFuture.completedFuture(value);
+            }
+        }
+        return refresh(entry, loader, expiry, false);
+    }
+
+    private <T> CompletableFuture<T> refresh(Entry<T> entry, Supplier<CompletableFuture<T>> loader, Expiry<T> expiry,
+                                             boolean force) {
+        synchronized (entry) {
+            CompletableFuture<T> inFlight = entry.inFlight;
+            if (inFlight != null && !inFlight.isDone()) {
+                return inFlight;
+            }
+            // Another caller may have finished a refresh between our freshness check and taking the lock.
+            T current = entry.value;
+            if (!force && current != null && clock.millis() < entry.expiresAt) {
+                return CompletableFuture.completedFuture(current);
+            }
+            CompletableFuture<T> future = loader.get().whenComplete((value, error) -> {
+                if (error == null && value != null) {
+                    long fetchedAt = clock.millis();
+                    synchronized (entry) {
+                        entry.value = value;
+                        entry.expiresAt = expiry.expiresAt(value, fetchedAt);
+                    }
+                }
+            });
+            entry.inFlight = future;
+            return future;
+        }
+    }
+
+    private Expiry<Response.Latest> latestExpiry() {
+        return (value, fetchedAt) -> fetchedAt + latestTtlMillis;
+    }
+
+    private static Expiry<Response.Aggregate> bucketExpiry(long bucketMillis) {
+        return (value, fetchedAt) -> nextBucket(value, fetchedAt, bucketMillis);
+    }
+
+    static long nextBucket(Response.Aggregate aggregate, long fetchedAt, long bucketMillis) {
+        long timestamp = aggregate.getTimestamp();
+        if (timestamp <= 0L) {
+            return fetchedAt + bucketMillis;
+        }
+        // The timestamp marks the start of the latest closed bucket; the next one closes a full bucket later.
+        long next = timestamp * 1000L + 2 * bucketMillis + BUCKET_PUBLISH_DELAY_MILLIS;
+        return Math.max(next, fetchedAt + BUCKET_RETRY_MILLIS);
+    }
+
+    private interface Expiry<T> {
+        long expiresAt(T value, long fetchedAt);
+    }
+
+    private static final class IndexedMapping {
+        private final List<ItemMapping> mapping;
+        private final MappingIndex index;
+
+        private IndexedMapping(List<ItemMapping> mapping, MappingIndex index) {
+            this.mapping = mapping;
+            this.index = index;
+        }
+    }
+
+    private static final class Entry<T> {
+        private volatile T value;
+        private volatile long expiresAt;
+        private CompletableFuture<T> inFlight;
+    }
+}
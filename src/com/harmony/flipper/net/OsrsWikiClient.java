@@ -19,6 +19,10 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Public entry point for fetching data from the OSRS Wiki price API.
@@ -40,51 +44,58 @@ public final class OsrsWikiClient {
     }
 
     public Response.Latest getLatest() {
-        RawLatestResponse raw = transport.fetchLatest();
-        return Response.Latest.fromRaw(raw != null ? raw.data : null);
+        return toLatest(transport.fetchLatest());
     }
 
     public Response.Aggregate getFiveMinutePrices() {
-        RawAggregateResponse raw = transport.fetchAggregate("5m");
-        long timestamp = raw != null ? raw.timestamp : 0L;
-        return Response.Aggregate.fromRaw(timestamp, raw != null ? raw.data : null);
+        return toAggregate(transport.fetchAggregate("5m"));
     }
 
     public Response.Aggregate getOneHourPrices() {
-        RawAggregateResponse raw = transport.fetchAggregate("1h");
-        long timestamp = raw != null ? raw.timestamp : 0L;
-        return Response.Aggregate.fromRaw(timestamp, raw != null ? raw.data : null);
+        return toAggregate(transport.fetchAggregate("1h"));
     }
 
     public Response.Volume getVolumes() {
-        RawVolumeResponse raw = transport.fetchVolumes();
-        long timestamp = raw != null ? raw.timestamp : 0L;
-        return Response.Volume.fromRaw(timestamp, raw != null ? raw.data : null);
+        return toVolume(transport.fetchVolumes());
     }
 
     public Response.Timeseries getTimeseries(int itemId, Time.Step step) {
         Objects.requireNonNull(step, "step");
-        Map<String, String> params = new LinkedHashMap<>();
-        params.put("id", Integer.toString(itemId));
-        params.put("timestep", step.getValue());
-        RawTimeseriesResponse raw = transport.fetchTimeseries(params);
-        int resolvedId = raw != null ? raw.itemId : itemId;
-        return Response.Timeseries.fromRaw(resolvedId, raw != null ? raw.data : null);
+        return toTimeseries(itemId, transport.fetchTimeseries(timeseriesParams(itemId, step)));
     }
 
     public List<ItemMapping> getMapping() {
         return transport.fetchMapping();
     }
 
+    public CompletableFuture<Response.Latest> getLatestAsync() {
+        return transport.fetchLatestAsync().thenApply(OsrsWikiClient::toLatest);
+    }
+
+    public CompletableFuture<Response.Aggregate> getFiveMinutePricesAsync() {
+        return transport.fetchAggregateAsync("5m").thenApply(OsrsWikiClient::toAggregate);
+    }
+
+    public CompletableFuture<Response.Aggregate> getOneHourPricesAsync() {
+        return transport.fetchAggregateAsync("1h").thenApply(OsrsWikiClient::toAggregate);
+    }
+
+    public CompletableFuture<Response.Volume> getVolumesAsync() {
+        return transport.fetchVolumesAsync().thenApply(OsrsWikiClient::toVolume);
+    }
+
+    public CompletableFuture<Response.Timeseries> getTimeseriesAsync(int itemId, Time.Step step) {
+        Objects.requireNonNull(step, "step");
+        return transport.fetchTimeseriesAsync(timeseriesParams(itemId, step))
+                .thenApply(raw -> toTimeseries(itemId, raw));
+    }
+
+    public CompletableFuture<List<ItemMapping>> getMappingAsync() {
+        return transport.fetchMappingAsync();
+    }
+
     public Snapshot getFullSnapshot(Iterable<Integer> timeseriesItemIds, Time.Step step) {
-        List<Integer> ids = new ArrayList<>();
-        if (timeseriesItemIds != null) {
-            for (Integer id : timeseriesItemIds) {
-                if (id != null) {
-                    ids.add(id);
-                }
-            }
-        }
+        List<Integer> ids = collectIds(timeseriesItemIds);
 
         Response.Latest latest = getLatest();
         Response.Aggregate fiveMinute = getFiveMinutePrices();
@@ -99,6 +110,132 @@ public final class OsrsWikiClient {
             }
         }
 
-        return new Snapshot(latest, fiveMinute, oneHour, volumes, mapping, series);
+        return Snapshot.of(latest, fiveMinute, oneHour, volumes, mapping, series);
+    }
+
+    /**
+     * Same as {@link #getFullSnapshot(Iterable, Time.Step)}, but the five bulk endpoints are requested
+     * at the same time and at most {@code maxConcurrency} timeseries requests are in flight at once.
+     */
+    public Snapshot getFullSnapshot(Iterable<Integer> timeseriesItemIds, Time.Step step, int maxConcurrency) {
+        return join(getFullSnapshotAsync(timeseriesItemIds, step, maxConcurrency));
+    }
+
+    public CompletableFuture<Snapshot> getFullSnapshotAsync(Iterable<Integer> timeseriesItemIds, Time.Step step, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        List<Integer> ids = step != null ? collectIds(timeseriesItemIds) : new ArrayList<>();
+
+        CompletableFuture<Response.Latest> latest = getLatestAsync();
+        CompletableFuture<Response.Aggregate> fiveMinute = getFiveMinutePricesAsync();
+        CompletableFuture<Response.Aggregate> oneHour = getOneHourPricesAsync();
+        CompletableFuture<Response.Volume> volumes = getVolumesAsync();
+        CompletableFuture<List<ItemMapping>> mapping = getMappingAsync();
+
+        // Each lane chains its next request onto the previous one, so at most maxConcurrency
+        // timeseries requests are in flight and no thread is parked waiting for a permit.
+        Map<Integer, Response.Timeseries> fetched = new ConcurrentHashMap<>();
+        AtomicInteger cursor = new AtomicInteger();
+        int lanes = Math.min(maxConcurrency, ids.size());
+        CompletableFuture<?>[] pending = new CompletableFuture<?>[lanes + 5];
+        for (int i = 0; i < lanes; i++) {
+            pending[i] = nextTimeseries(ids, step, cursor, fetched);
+        }
+        pending[lanes] = latest;
+        pending[lanes + 1] = fiveMinute;
+        pending[lanes + 2] = oneHour;
+        pending[lanes + 3] = volumes;
+        pending[lanes + 4] = mapping;
+
+        return CompletableFuture.allOf(pending).thenApply(ignored -> Snapshot.of(
+                latest.join(),
+                fiveMinute.join(),
+                oneHour.join(),
+                volumes.join(),
+                mapping.join(),
+                orderedSeries(ids, fetched)));
+    }
+
+    private CompletableFuture<Void> nextTimeseries(List<Integer> ids,
+                                                   Time.Step step,
+                                                   AtomicInteger cursor,
+                                                   Map<Integer, Response.Timeseries> fetched) {
+        // Requests that are already complete (single-flight hits) are drained in this loop: chaining them
+        // with thenCompose would run the continuation on this stack and recurse once per id.
+        int index;
+        while ((index = cursor.getAndIncrement()) < ids.size()) {
+            int id = ids.get(index);
+            CompletableFuture<Response.Timeseries> timeseries = getTimeseriesAsync(id, step);
+            if (!timeseries.isDone() || timeseries.isCompletedExceptionally()) {
+                return timeseries.thenCompose(value -> {
+                    fetched.put(id, value);
+                    return nextTimeseries(ids, step, cursor, fetched);
+                });
+            }
+            fetched.put(id, timeseries.join());
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof OsrsWikiClientException) {
+                throw (OsrsWikiClientException) cause;
+            }
+            throw new OsrsWikiClientException("Request failed", cause);
+        }
+    }
+
+    private static Response.Latest toLatest(RawLatestResponse raw) {
+        return Response.Latest.of(raw != null ? raw.data : null);
+    }
+
+    private static Response.Aggregate toAggregate(RawAggregateResponse raw) {
+        long timestamp = raw != null ? raw.timestamp : 0L;
+        return Response.Aggregate.of(timestamp, raw != null ? raw.data : null);
+    }
+
+    private static Response.Volume toVolume(RawVolumeResponse raw) {
+        long timestamp = raw != null ? raw.timestamp : 0L;
+        return Response.Volume.of(timestamp, raw != null ? raw.data : null);
+    }
+
+    private static Response.Timeseries toTimeseries(int itemId, RawTimeseriesResponse raw) {
+        int resolvedId = raw != null ? raw.itemId : itemId;
+        return Response.Timeseries.of(resolvedId, raw != null ? raw.data : null);
+    }
+
+    private static Map<String, String> timeseriesParams(int itemId, Time.Step step) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("id", Integer.toString(itemId));
+        params.put("timestep", step.getValue());
+        return params;
+    }
+
+    private static List<Integer> collectIds(Iterable<Integer> timeseriesItemIds) {
+        List<Integer> ids = new ArrayList<>();
+        if (timeseriesItemIds != null) {
+            for (Integer id : timeseriesItemIds) {
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static Map<Integer, Response.Timeseries> orderedSeries(List<Integer> ids, Map<Integer, Response.Timeseries> fetched) {
+        Map<Integer, Response.Timeseries> series = new LinkedHashMap<>();
+        for (Integer id : ids) {
+            Response.Timeseries timeseries = fetched.get(id);
+            if (timeseries != null) {
+                series.put(id, timeseries);
+            }
+        }
+        return series;
     }
 }
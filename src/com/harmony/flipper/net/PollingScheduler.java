@@ -0,0 +1,269 @@
+package com.harmony.flipper.net;
+
+import com.harmony.flipper.data.ItemMapping;
+import com.harmony.flipper.data.Response;
+import com.harmony.flipper.data.Snapshot;
+import com.harmony.flipper.data.Time;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a current {@link Snapshot} by polling the price API in the background.
+ * <p>
+ * /latest is polled on a fixed cadence. /5m and /1h are requested just after the bucket following the one
+ * in their last {@link Response.Aggregate#getTimestamp() timestamp} closes, so nothing is spent polling
+ * mid-bucket. Every poll is pushed back by a random delay of up to {@code jitter} so bot instances started
+ * together do not hit the API in lockstep. Polls go through the {@link OsrsWikiCache}, so its price entries
+ * stay current for other readers, and volumes and mapping are read from it without blocking.
+ * <p>
+ * Once all three price endpoints have answered, every successful poll publishes a new snapshot to the
+ * subscribers on the scheduler thread. Failed polls are retried on the next tick and never reach subscribers.
+ * The scheduler thread never waits on the network.
+ */
+public final class PollingScheduler implements AutoCloseable {
+
+    private static final Duration DEFAULT_LATEST_INTERVAL = Duration.ofSeconds(60);
+    private static final Duration DEFAULT_JITTER = Duration.ofSeconds(5);
+    private static final long RETRY_MILLIS = 15_000L;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000L;
+
+    private final OsrsWikiCache cache;
+    private final Clock clock;
+    private final long latestIntervalMillis;
+    private final long jitterMillis;
+    private final SplittableRandom random;
+    private final ScheduledExecutorService executor;
+    private final List<Consumer<Snapshot>> subscribers = new CopyOnWriteArrayList<>();
+
+    // Written on the scheduler thread only.
+    private Response.Latest latest;
+    private Response.Aggregate fiveMinute;
+    private Response.Aggregate oneHour;
+    private boolean started;
+    private boolean publishPending;
+    private volatile Snapshot snapshot;
+
+    public PollingScheduler(OsrsWikiCache cache) {
+        this(cache, Clock.systemUTC(), DEFAULT_LATEST_INTERVAL, DEFAULT_JITTER);
+    }
+
+    public PollingScheduler(OsrsWikiCache cache, Clock clock, Duration latestInterval, Duration jitter) {
+        this.cache = Objects.requireNonNull(cache, "cache");
+        this.clock = Objects.requireNonNull(clock, "clock");
+        Duration interval = Objects.requireNonNull(latestInterval, "latestInterval");
+        if (interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("latestInterval must be positive");
+        }
+        Duration spread = Objects.requireNonNull(jitter, "jitter");
+        if (spread.isNegative()) {
+            throw new IllegalArgumentException("jitter must not be negative");
+        }
+        this.latestIntervalMillis = interval.toMillis();
+        this.jitterMillis = spread.toMillis();
+        this.random = new SplittableRandom();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "osrs-wiki-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.executor = executor;
+    }
+
+    /**
+     * Issues the first poll of every endpoint right away. Calling it again has no effect.
+     */
+    public void start() {
+        executor.execute(() -> {
+            if (started) {
+                return;
+            }
+            started = true;
+            pollLatest();
+            pollFiveMinute();
+            pollOneHour();
+        });
+    }
+
+    /**
+     * Publishes the price responses of {@code snapshot}, typically the one saved by the previous run, until
+     * polls replace them. Parts that have already been polled are kept.
+     */
+    public void seed(Snapshot snapshot) {
+        Objects.requireNonNull(snapshot, "snapshot");
+        executor.execute(() -> {
+            if (latest == null) {
+                latest = snapshot.getLatest();
+            }
+            if (fiveMinute == null) {
+                fiveMinute = snapshot.getFiveMinute();
+            }
+            if (oneHour == null) {
+                oneHour = snapshot.getOneHour();
+            }
+            publish();
+        });
+    }
+
+    /**
+     * Most recent published snapshot, or {@code null} until every price endpoint has answered once.
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Registers a callback for every published snapshot; it runs on the scheduler thread and should return
+     * quickly. A snapshot already published is delivered straight away.
+     *
+     * @return handle that removes the subscription
+     */
+    public Runnable subscribe(Consumer<Snapshot> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        subscribers.add(subscriber);
+        executor.execute(() -> {
+            Snapshot current = snapshot;
+            if (current != null && subscribers.contains(subscriber)) {
+                deliver(subscriber, current);
+            }
+        });
+        return () -> subscribers.remove(subscriber);
+    }
+
+    /**
+     * Stops polling and waits for a callback already running on the scheduler thread to return, so nothing
+     * is delivered once this method has returned. Callbacks are not interrupted unless they overrun the
+     * timeout.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        subscribers.clear();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void pollLatest() {
+        long startedAt = clock.millis();
+        fetch(cache::refreshLatest, value -> {
+            latest = value;
+            publish();
+        }, () -> {
+            long elapsed = clock.millis() - startedAt;
+            schedule(this::pollLatest, Math.max(0L, latestIntervalMillis - elapsed) + jitter());
+        });
+    }
+
+    private void pollFiveMinute() {
+        long bucketMillis = Time.Step.FIVE_MINUTES.getSeconds() * 1000L;
+        pollAggregate(cache::refreshFiveMinutePrices, bucketMillis, value -> fiveMinute = value, this::pollFiveMinute);
+    }
+
+    private void pollOneHour() {
+        long bucketMillis = Time.Step.ONE_HOUR.getSeconds() * 1000L;
+        pollAggregate(cache::refreshOneHourPrices, bucketMillis, value -> oneHour = value, this::pollOneHour);
+    }
+
+    private void pollAggregate(Supplier<CompletableFuture<Response.Aggregate>> loader,
+                               long bucketMillis,
+                               Consumer<Response.Aggregate> store,
+                               Runnable next) {
+        Response.Aggregate[] fetched = new Response.Aggregate[1];
+        fetch(loader, value -> {
+            fetched[0] = value;
+            store.accept(value);
+            publish();
+        }, () -> {
+            long now = clock.millis();
+            long due = fetched[0] != null
+                    ? OsrsWikiCache.nextBucket(fetched[0], now, bucketMillis)
+                    : now + RETRY_MILLIS;
+            schedule(next, due - now + jitter());
+        });
+    }
+
+    private <T> void fetch(Supplier<CompletableFuture<T>> loader, Consumer<T> onSuccess, Runnable reschedule) {
+        CompletableFuture<T> future;
+        try {
+            future = loader.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenCompleteAsync((value, error) -> {
+            try {
+                if (error == null && value != null) {
+                    onSuccess.accept(value);
+                }
+            } finally {
+                reschedule.run();
+            }
+        }, executor);
+    }
+
+    private void publish() {
+        if (latest == null || fiveMinute == null || oneHour == null || publishPending) {
+            return;
+        }
+        // Cached volumes and mapping complete at once; a cold or expired entry is awaited off this thread,
+        // and polls landing meanwhile are folded into the one publish that follows.
+        publishPending = true;
+        CompletableFuture<Response.Volume> volumes = cache.getVolumesAsync();
+        CompletableFuture<List<ItemMapping>> mapping = cache.getMappingAsync();
+        CompletableFuture.allOf(volumes, mapping).whenCompleteAsync((ignored, error) -> {
+            publishPending = false;
+            if (error == null) {
+                publish(volumes.join(), mapping.join());
+            }
+            // Otherwise volumes or mapping are unavailable; the next successful poll tries again.
+        }, executor);
+    }
+
+    private void publish(Response.Volume volumes, List<ItemMapping> mapping) {
+        Snapshot next = Snapshot.of(latest, fiveMinute, oneHour, volumes, mapping, Collections.emptyMap(),
+                cache.getMappingIndex(mapping));
+        snapshot = next;
+        for (Consumer<Snapshot> subscriber : subscribers) {
+            deliver(subscriber, next);
+        }
+    }
+
+    private static void deliver(Consumer<Snapshot> subscriber, Snapshot value) {
+        try {
+            subscriber.accept(value);
+        } catch (RuntimeException ignored) {
+            // A failing subscriber must not stop the others or the polling loop.
+        }
+    }
+
+    private void schedule(Runnable poll, long delayMillis) {
+        try {
+            executor.schedule(poll, Math.max(0L, delayMillis), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignored) {
+            // Closed while the poll was in flight.
+        }
+    }
+
+    private long jitter() {
+        return jitterMillis > 0 ? random.nextLong(jitterMillis + 1) : 0L;
+    }
+}
@@ -0,0 +1,352 @@
+package com.harmony.flipper.net;
+
+import com.harmony.flipper.data.Response;
+import com.harmony.flipper.data.SnapshotDelta;
+import com.harmony.flipper.data.Table;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+/**
+ * Publishes one {@link Update} per item whose latest price moved between successive /latest responses.
+ * <p>
+ * Each subscriber has its own bounded buffer and is only sent what it has requested. While an item's update
+ * waits in the buffer, a newer one for the same item replaces it in place and the change flags are merged, so
+ * a slow subscriber sees the current price of every item it cares about rather than a backlog of old ones.
+ * When more distinct items are pending than the buffer holds, the oldest are dropped and counted.
+ * <p>
+ * Signals are delivered on the given executor, one at a time per subscriber.
+ */
+public final class PriceFeed implements Flow.Publisher<PriceFeed.Update>, AutoCloseable {
+
+    private static final int DEFAULT_BUFFER = 8_192;
+
+    private final Executor executor;
+    private final int bufferCapacity;
+    private final List<FeedSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private Response.Latest previousResponse;
+    private Table.Latest previous = Table.Latest.of(null);
+    private boolean closed;
+
+    public PriceFeed() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BUFFER);
+    }
+
+    public PriceFeed(Executor executor, int bufferCapacity) {
+        this.executor = Objects.requireNonNull(executor, "executor");
+        if (bufferCapacity <= 0) {
+            throw new IllegalArgumentException("bufferCapacity must be positive");
+        }
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Update> subscriber) {
+        subscribe(subscriber, id -> true);
+    }
+
+    /**
+     * Subscribes to the items accepted by {@code items}; updates for other items are never buffered.
+     */
+    public void subscribe(Flow.Subscriber<? super Update> subscriber, IntPredicate items) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        Objects.requireNonNull(items, "items");
+        FeedSubscription subscription = new FeedSubscription(subscriber, items);
+        synchronized (this) {
+            if (closed) {
+                subscription.complete();
+            } else {
+                subscriptions.add(subscription);
+            }
+        }
+        subscription.signal();
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Total number of updates dropped because a subscriber's buffer was full.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Diffs {@code latest} against the previously published response and offers an update for every changed
+     * item to each interested subscriber. The first response reports every item as added; publishing the same
+     * response instance again is a no-op.
+     *
+     * @return number of items that changed
+     */
+    public synchronized int publish(Response.Latest latest) {
+        if (closed) {
+            throw new IllegalStateException("PriceFeed is closed");
+        }
+        if (latest != null && latest == previousResponse) {
+            return 0;
+        }
+        previousResponse = latest;
+        Table.Latest next = Table.Latest.of(latest);
+        SnapshotDelta delta = SnapshotDelta.between(previous, next, null, null);
+        previous = next;
+        if (delta.isEmpty() || subscriptions.isEmpty()) {
+            return delta.size();
+        }
+        for (int i = 0; i < delta.size(); i++) {
+            int id = delta.idAt(i);
+            Update update = new Update(id, delta.flagsAt(i),
+                    next.getHigh(id), next.getHighTime(id), next.getLow(id), next.getLowTime(id));
+            for (FeedSubscription subscription : subscriptions) {
+                subscription.offer(update);
+            }
+        }
+        for (FeedSubscription subscription : subscriptions) {
+            subscription.signal();
+        }
+        return delta.size();
+    }
+
+    /**
+     * Lets every subscriber drain what is already buffered and then completes it.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        for (FeedSubscription subscription : subscriptions) {
+            subscription.complete();
+            subscription.signal();
+        }
+        subscriptions.clear();
+    }
+
+    /**
+     * Change to one item. Prices and times are {@link Table#MISSING} when the item has no trade on that side
+     * or was removed; {@link #getFlags()} holds {@link SnapshotDelta} flags.
+     */
+    public static final class Update {
+        private final int itemId;
+        private final int flags;
+        private final int high;
+        private final long highTime;
+        private final int low;
+        private final long lowTime;
+
+        Update(int itemId, int flags, int high, long highTime, int low, long lowTime) {
+            this.itemId = itemId;
+            this.flags = flags;
+            this.high = high;
+            this.highTime = highTime;
+            this.low = low;
+            this.lowTime = lowTime;
+        }
+
+        public int getItemId() {
+            return itemId;
+        }
+
+        public int getFlags() {
+            return flags;
+        }
+
+        public boolean has(int flag) {
+            return (flags & flag) != 0;
+        }
+
+        public int getHigh() {
+            return high;
+        }
+
+        public long getHighTime() {
+            return highTime;
+        }
+
+        public int getLow() {
+            return low;
+        }
+
+        public long getLowTime() {
+            return lowTime;
+        }
+
+        Update mergedInto(Update older) {
+            int merged = flags | older.flags;
+            if ((flags & SnapshotDelta.REMOVED) != 0) {
+                merged &= ~SnapshotDelta.ADDED;
+            } else if ((older.flags & SnapshotDelta.REMOVED) != 0) {
+                // Removed and back again before the subscriber saw either: to it the item just changed.
+                merged &= ~(SnapshotDelta.REMOVED | SnapshotDelta.ADDED);
+            }
+            return new Update(itemId, merged, high, highTime, low, lowTime);
+        }
+    }
+
+    private final class FeedSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super Update> subscriber;
+        private final IntPredicate items;
+        private final AtomicInteger wip = new AtomicInteger();
+        // Guarded by this.
+        private final LinkedHashMap<Integer, Update> pending = new LinkedHashMap<>();
+        private long demand;
+        private boolean cancelled;
+        private boolean completed;
+        private Throwable error;
+        // Touched only by the drain loop.
+        private boolean subscribed;
+        private boolean terminated;
+
+        private FeedSubscription(Flow.Subscriber<? super Update> subscriber, IntPredicate items) {
+            this.subscriber = subscriber;
+            this.items = items;
+        }
+
+        private void offer(Update update) {
+            if (!items.test(update.getItemId())) {
+                return;
+            }
+            synchronized (this) {
+                if (cancelled || completed) {
+                    return;
+                }
+                Update older = pending.get(update.getItemId());
+                pending.put(update.getItemId(), older == null ? update : update.mergedInto(older));
+                if (pending.size() > bufferCapacity) {
+                    Iterator<Integer> eldest = pending.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+
+        private synchronized void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void request(long n) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                if (n <= 0) {
+                    error = new IllegalArgumentException("non-positive request: " + n);
+                    pending.clear();
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                pending.clear();
+            }
+            subscriptions.remove(this);
+        }
+
+        private void signal() {
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    cancel();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (terminated) {
+                return;
+            }
+            if (!subscribed) {
+                subscribed = true;
+                try {
+                    subscriber.onSubscribe(this);
+                } catch (RuntimeException e) {
+                    cancel();
+                    terminated = true;
+                    return;
+                }
+            }
+            while (true) {
+                Update next;
+                Throwable failure;
+                boolean done;
+                synchronized (this) {
+                    if (cancelled) {
+                        terminated = true;
+                        return;
+                    }
+                    failure = error;
+                    next = failure == null && demand > 0 ? poll() : null;
+                    if (next != null) {
+                        demand--;
+                    }
+                    done = failure == null && next == null && completed && pending.isEmpty();
+                }
+                if (failure != null) {
+                    cancel();
+                    terminated = true;
+                    subscriber.onError(failure);
+                    return;
+                }
+                if (done) {
+                    terminated = true;
+                    subscriptions.remove(this);
+                    subscriber.onComplete();
+                    return;
+                }
+                if (next == null) {
+                    return;
+                }
+                try {
+                    subscriber.onNext(next);
+                } catch (RuntimeException e) {
+                    cancel();
+                    terminated = true;
+                    return;
+                }
+            }
+        }
+
+        private Update poll() {
+            Iterator<Update> iterator = pending.values().iterator();
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            Update first = iterator.next();
+            iterator.remove();
+            return first;
+        }
+    }
+}
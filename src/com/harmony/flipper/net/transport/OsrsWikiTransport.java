@@ -4,12 +4,15 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 import com.harmony.flipper.data.ItemMapping;
 import com.harmony.flipper.data.Price;
 import com.harmony.flipper.data.Time;
 import com.harmony.flipper.net.OsrsWikiClientException;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.reflect.Type;
 import java.net.URI;
 import java.net.URLEncoder;
@@ -22,6 +25,16 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 public final class OsrsWikiTransport {
 
@@ -37,12 +50,24 @@ public final class OsrsWikiTransport {
     }.getType();
     private static final Type MAPPING_LIST_TYPE = new TypeToken<List<ItemMapping>>() {
     }.getType();
+    // Async bodies are parsed here rather than on the HttpClient executor, because reading the body stream
+    // blocks until the bytes arrive. The pool is shared by all transports and bounded by the core count.
+    private static final Executor DECODE_EXECUTOR = decodeExecutor();
 
     private final HttpClient httpClient;
     private final Gson gson;
     private final URI baseUri;
     private final String userAgent;
     private final Duration requestTimeout;
+    private final RateLimiter rateLimiter;
+    private final RetryPolicy retryPolicy;
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong throttledResponses = new AtomicLong();
+    private final Map<URI, Validated> validated = new ConcurrentHashMap<>();
+    private final AtomicLong conditionalHits = new AtomicLong();
+    private final AtomicLong conditionalMisses = new AtomicLong();
+    private final SingleFlight<URI> inFlight = new SingleFlight<>();
+    private volatile MappingView mappingView;
 
     public OsrsWikiTransport(String userAgent) {
         this(HttpClient.newBuilder().connectTimeout(DEFAULT_TIMEOUT).build(),
@@ -53,6 +78,20 @@ public final class OsrsWikiTransport {
     }
 
     public OsrsWikiTransport(HttpClient httpClient, Gson gson, URI baseUri, String userAgent, Duration requestTimeout) {
+        this(httpClient, gson, baseUri, userAgent, requestTimeout, null, RetryPolicy.defaults());
+    }
+
+    /**
+     * @param rateLimiter limiter to draw a token from before every attempt, may be shared between
+     *                    transports; {@code null} disables client-side limiting
+     */
+    public OsrsWikiTransport(HttpClient httpClient,
+                             Gson gson,
+                             URI baseUri,
+                             String userAgent,
+                             Duration requestTimeout,
+                             RateLimiter rateLimiter,
+                             RetryPolicy retryPolicy) {
         this.httpClient = Objects.requireNonNull(httpClient, "httpClient");
         this.gson = Objects.requireNonNull(gson, "gson");
         this.baseUri = Objects.requireNonNull(baseUri, "baseUri");
@@ -62,6 +101,47 @@ public final class OsrsWikiTransport {
             throw new IllegalArgumentException("requestTimeout must be positive");
         }
         this.requestTimeout = timeout;
+        this.rateLimiter = rateLimiter;
+        this.retryPolicy = Objects.requireNonNull(retryPolicy, "retryPolicy");
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Number of attempts that were repeated after a 429, a 5xx or an I/O failure.
+     */
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * Number of 429 Too Many Requests responses received from the API.
+     */
+    public long getThrottledResponses() {
+        return throttledResponses.get();
+    }
+
+    /**
+     * Number of requests answered with 304 Not Modified and served from the previously decoded body.
+     */
+    public long getConditionalHits() {
+        return conditionalHits.get();
+    }
+
+    /**
+     * Number of requests that downloaded and decoded a full body.
+     */
+    public long getConditionalMisses() {
+        return conditionalMisses.get();
+    }
+
+    /**
+     * Number of calls that joined an identical request already in flight instead of sending their own.
+     */
+    public long getCoalescedRequests() {
+        return inFlight.getSharedCount();
     }
 
     public RawLatestResponse fetchLatest() {
@@ -80,43 +160,239 @@ public final class OsrsWikiTransport {
         return get("timeseries", params, RAW_TIMESERIES_TYPE);
     }
 
+    /**
+     * Item mapping as an unmodifiable list. A 304 returns the very instance of the previous call, so callers
+     * can tell an unchanged mapping by identity.
+     */
     public List<ItemMapping> fetchMapping() {
-        List<ItemMapping> mapping = get("mapping", Collections.emptyMap(), MAPPING_LIST_TYPE);
+        return viewOf(get("mapping", Collections.emptyMap(), MAPPING_LIST_TYPE));
+    }
+
+    public CompletableFuture<RawLatestResponse> fetchLatestAsync() {
+        return getAsync("latest", Collections.emptyMap(), RAW_LATEST_TYPE);
+    }
+
+    public CompletableFuture<RawAggregateResponse> fetchAggregateAsync(String bucketPath) {
+        return getAsync(bucketPath, Collections.emptyMap(), RAW_AGGREGATE_TYPE);
+    }
+
+    public CompletableFuture<RawVolumeResponse> fetchVolumesAsync() {
+        return getAsync("volumes", Collections.emptyMap(), RAW_VOLUME_TYPE);
+    }
+
+    public CompletableFuture<RawTimeseriesResponse> fetchTimeseriesAsync(Map<String, String> params) {
+        return getAsync("timeseries", params, RAW_TIMESERIES_TYPE);
+    }
+
+    public CompletableFuture<List<ItemMapping>> fetchMappingAsync() {
+        CompletableFuture<List<ItemMapping>> future = getAsync("mapping", Collections.emptyMap(), MAPPING_LIST_TYPE);
+        return future.thenApply(this::viewOf);
+    }
+
+    private List<ItemMapping> viewOf(List<ItemMapping> mapping) {
         if (mapping == null || mapping.isEmpty()) {
             return Collections.emptyList();
         }
-        return Collections.unmodifiableList(mapping);
+        MappingView view = mappingView;
+        if (view == null || view.decoded != mapping) {
+            view = new MappingView(mapping);
+            mappingView = view;
+        }
+        return view.list;
     }
 
     private <T> T get(String path, Map<String, String> queryParams, Type type) {
         URI uri = buildUri(path, queryParams);
-        HttpRequest request = HttpRequest.newBuilder(uri)
-                .timeout(requestTimeout)
-                .header("Accept", "application/json")
-                .header("User-Agent", userAgent)
-                .GET()
-                .build();
-        HttpResponse<String> response;
+        return inFlight.call(uri, () -> send(uri, type));
+    }
+
+    private <T> CompletableFuture<T> getAsync(String path, Map<String, String> queryParams, Type type) {
+        URI uri = buildUri(path, queryParams);
+        return inFlight.callAsync(uri, () -> sendAsync(uri, type));
+    }
+
+    private <T> T send(URI uri, Type type) {
+        for (int attempt = 1; ; attempt++) {
+            if (rateLimiter != null) {
+                rateLimiter.acquire();
+            }
+            Validated previous = validated.get(uri);
+            HttpRequest request = buildRequest(uri, previous);
+            HttpResponse<InputStream> response;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OsrsWikiClientException("Request interrupted for " + uri, e);
+            } catch (IOException e) {
+                long delay = retryPolicy.delayMillis(attempt, null);
+                if (delay < 0) {
+                    throw new OsrsWikiClientException("Failed to call " + uri, e);
+                }
+                sleepBeforeRetry(uri, delay);
+                continue;
+            }
+            long delay = retryDelay(response, attempt);
+            if (delay >= 0) {
+                closeQuietly(response.body());
+                sleepBeforeRetry(uri, delay);
+                continue;
+            }
+            return decode(uri, response, type, previous);
+        }
+    }
+
+    private <T> CompletableFuture<T> sendAsync(URI uri, Type type) {
+        return attemptAsync(uri, type, 1);
+    }
+
+    private <T> CompletableFuture<T> attemptAsync(URI uri, Type type, int attempt) {
+        CompletableFuture<Void> permit = rateLimiter != null
+                ? rateLimiter.acquireAsync()
+                : CompletableFuture.completedFuture(null);
+        // The future completes once headers arrive; the body is then streamed into the decoder on
+        // DECODE_EXECUTOR rather than being buffered first.
+        return permit.thenCompose(ignored -> {
+            Validated previous = validated.get(uri);
+            return httpClient.sendAsync(buildRequest(uri, previous), HttpResponse.BodyHandlers.ofInputStream())
+                    .handleAsync((response, error) -> {
+                        if (error != null) {
+                            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                    ? error.getCause()
+                                    : error;
+                            long delay = cause instanceof IOException ? retryPolicy.delayMillis(attempt, null) : -1L;
+                            if (delay < 0) {
+                                throw new OsrsWikiClientException("Failed to call " + uri, cause);
+                            }
+                            return this.<T>retryAsync(uri, type, attempt, delay);
+                        }
+                        long delay = retryDelay(response, attempt);
+                        if (delay >= 0) {
+                            closeQuietly(response.body());
+                            return this.<T>retryAsync(uri, type, attempt, delay);
+                        }
+                        return CompletableFuture.completedFuture(this.<T>decode(uri, response, type, previous));
+                    }, DECODE_EXECUTOR)
+                    .thenCompose(next -> next);
+        });
+    }
+
+    private <T> CompletableFuture<T> retryAsync(URI uri, Type type, int attempt, long delayMillis) {
+        retries.incrementAndGet();
+        Executor delayed = CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS);
+        return CompletableFuture.runAsync(() -> {
+        }, delayed).thenCompose(ignored -> attemptAsync(uri, type, attempt + 1));
+    }
+
+    private long retryDelay(HttpResponse<?> response, int attempt) {
+        int status = response.statusCode();
+        if (status == 429) {
+            throttledResponses.incrementAndGet();
+        }
+        if (!retryPolicy.isRetryable(status)) {
+            return -1L;
+        }
+        return retryPolicy.delayMillis(attempt, response.headers().firstValue("Retry-After").orElse(null));
+    }
+
+    private void sleepBeforeRetry(URI uri, long delayMillis) {
+        retries.incrementAndGet();
         try {
-            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            Thread.sleep(delayMillis);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            throw new OsrsWikiClientException("Request interrupted for " + uri, e);
-        } catch (IOException e) {
-            throw new OsrsWikiClientException("Failed to call " + uri, e);
+            throw new OsrsWikiClientException("Interrupted while backing off from " + uri, e);
         }
+    }
 
+    private HttpRequest buildRequest(URI uri, Validated previous) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip, deflate")
+                .header("User-Agent", userAgent);
+        if (previous != null) {
+            if (previous.etag != null) {
+                builder.header("If-None-Match", previous.etag);
+            }
+            if (previous.lastModified != null) {
+                builder.header("If-Modified-Since", previous.lastModified);
+            }
+        }
+        return builder.GET().build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T decode(URI uri, HttpResponse<InputStream> response, Type type, Validated previous) {
         int status = response.statusCode();
+        if (status == 304 && previous != null) {
+            closeQuietly(response.body());
+            conditionalHits.incrementAndGet();
+            return (T) previous.value;
+        }
         if (status < 200 || status >= 300) {
-            String body = response.body();
-            String snippet = body == null ? "" : body.substring(0, Math.min(256, body.length()));
-            throw new OsrsWikiClientException("Unexpected response " + status + " from " + uri + ": " + snippet);
+            throw new OsrsWikiClientException("Unexpected response " + status + " from " + uri + ": " + snippet(response));
         }
 
-        try {
-            return gson.fromJson(response.body(), type);
+        try (InputStream body = decompress(response)) {
+            JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            T value = gson.fromJson(reader, type);
+            conditionalMisses.incrementAndGet();
+            remember(uri, response, value);
+            return value;
         } catch (JsonParseException e) {
             throw new OsrsWikiClientException("Unable to parse response from " + uri, e);
+        } catch (IOException e) {
+            throw new OsrsWikiClientException("Failed to read response from " + uri, e);
+        }
+    }
+
+    private static InputStream decompress(HttpResponse<InputStream> response) throws IOException {
+        InputStream body = response.body();
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("").trim();
+        if (encoding.isEmpty() || encoding.equalsIgnoreCase("identity")) {
+            return body;
+        }
+        if (encoding.equalsIgnoreCase("gzip") || encoding.equalsIgnoreCase("x-gzip")) {
+            return new GZIPInputStream(body, 8192);
+        }
+        if (encoding.equalsIgnoreCase("deflate")) {
+            return new InflaterInputStream(body);
+        }
+        body.close();
+        throw new OsrsWikiClientException("Unsupported Content-Encoding " + encoding + " from " + response.uri());
+    }
+
+    /**
+     * Keeps validators and the decoded body for the bulk endpoints only. Timeseries URIs, one per item and
+     * step, would otherwise pin every series ever fetched for the life of the transport; their freshness
+     * is left to {@code OsrsWikiCache}.
+     */
+    private void remember(URI uri, HttpResponse<?> response, Object value) {
+        if (uri.getRawQuery() != null) {
+            return;
+        }
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        if (value == null || (etag == null && lastModified == null)) {
+            validated.remove(uri);
+            return;
+        }
+        validated.put(uri, new Validated(etag, lastModified, value));
+    }
+
+    private static String snippet(HttpResponse<InputStream> response) {
+        try (InputStream body = decompress(response)) {
+            return new String(body.readNBytes(256), StandardCharsets.UTF_8);
+        } catch (IOException | OsrsWikiClientException e) {
+            return "";
+        }
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException ignored) {
         }
     }
 
@@ -148,18 +424,51 @@ public final class OsrsWikiTransport {
         return trimmed;
     }
 
+    private static Executor decodeExecutor() {
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+            Thread thread = new Thread(runnable, "osrs-wiki-decode-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static final class MappingView {
+        private final List<ItemMapping> decoded;
+        private final List<ItemMapping> list;
+
+        private MappingView(List<ItemMapping> decoded) {
+            this.decoded = decoded;
+            this.list = Collections.unmodifiableList(decoded);
+        }
+    }
+
+    private static final class Validated {
+        private final String etag;
+        private final String lastModified;
+        private final Object value;
+
+        private Validated(String etag, String lastModified, Object value) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.value = value;
+        }
+    }
+
+    // Gson parses the item id keys straight into Integer, so the decoded maps are handed to Response as is.
+
     public static final class RawLatestResponse {
-        public Map<String, Price.Latest> data;
+        public Map<Integer, Price.Latest> data;
     }
 
     public static final class RawAggregateResponse {
         public long timestamp;
-        public Map<String, Price.Aggregate> data;
+        public Map<Integer, Price.Aggregate> data;
     }
 
     public static final class RawVolumeResponse {
         public long timestamp;
-        public Map<String, Long> data;
+        public Map<Integer, Long> data;
     }
 
     public static final class RawTimeseriesResponse {
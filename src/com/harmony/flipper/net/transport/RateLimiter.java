@@ -0,0 +1,87 @@
+package com.harmony.flipper.net.transport;
+
+import com.harmony.flipper.net.OsrsWikiClientException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket shared by every transport that should count against the same request budget.
+ * <p>
+ * Callers reserve a token up front; when the bucket is empty the reservation goes into debt and the
+ * caller waits until its token would have been refilled, so waiting callers are served in order.
+ */
+public final class RateLimiter {
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong throttled = new AtomicLong();
+    private double tokens;
+    private long refilledAt;
+
+    public RateLimiter(double requestsPerSecond, int burst) {
+        if (!(requestsPerSecond > 0)) {
+            throw new IllegalArgumentException("requestsPerSecond must be positive");
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException("burst must be positive");
+        }
+        this.tokensPerNano = requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.tokens = burst;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Number of callers currently waiting for a token.
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * Total number of acquisitions that had to wait for a token.
+     */
+    public long getThrottled() {
+        return throttled.get();
+    }
+
+    public void acquire() {
+        long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return;
+        }
+        throttled.incrementAndGet();
+        queued.incrementAndGet();
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OsrsWikiClientException("Interrupted while waiting for a rate limit token", e);
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    public CompletableFuture<Void> acquireAsync() {
+        long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        throttled.incrementAndGet();
+        queued.incrementAndGet();
+        return CompletableFuture.runAsync(queued::decrementAndGet,
+                CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+    }
+
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0L : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+}
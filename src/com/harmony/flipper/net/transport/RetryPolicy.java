@@ -0,0 +1,93 @@
+package com.harmony.flipper.net.transport;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retry rules for throttled (429), server-side (5xx) and I/O failures.
+ * <p>
+ * Delays grow exponentially from {@code baseDelay} with jitter so that many bots backing off together do
+ * not retry in lockstep. A {@code Retry-After} header always wins over the computed delay; if it asks for
+ * longer than {@code maxDelay} the request fails instead of retrying early.
+ */
+public final class RetryPolicy {
+
+    private static final RetryPolicy NONE = new RetryPolicy(1, Duration.ofMillis(1), Duration.ofMillis(1));
+    private static final RetryPolicy DEFAULT = new RetryPolicy(4, Duration.ofMillis(500), Duration.ofSeconds(30));
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    public RetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts must be positive");
+        }
+        Objects.requireNonNull(baseDelay, "baseDelay");
+        Objects.requireNonNull(maxDelay, "maxDelay");
+        if (baseDelay.isNegative() || baseDelay.isZero() || maxDelay.compareTo(baseDelay) < 0) {
+            throw new IllegalArgumentException("delays must be positive and maxDelay >= baseDelay");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelay.toMillis();
+        this.maxDelayMillis = maxDelay.toMillis();
+    }
+
+    public static RetryPolicy none() {
+        return NONE;
+    }
+
+    public static RetryPolicy defaults() {
+        return DEFAULT;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    boolean isRetryable(int status) {
+        return status == 429 || status == 500 || status == 502 || status == 503 || status == 504;
+    }
+
+    /**
+     * Delay before the attempt following {@code attempt} (1-based), or -1 when no retry should happen.
+     */
+    long delayMillis(int attempt, String retryAfter) {
+        if (attempt >= maxAttempts) {
+            return -1L;
+        }
+        long requested = parseRetryAfter(retryAfter);
+        if (requested >= 0) {
+            return requested <= maxDelayMillis ? requested : -1L;
+        }
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+
+    private static long parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return -1L;
+        }
+        String trimmed = value.trim();
+        try {
+            // toMillis saturates instead of overflowing, so a huge value still reads as longer than maxDelay.
+            return Math.max(0L, TimeUnit.SECONDS.toMillis(Long.parseLong(trimmed)));
+        } catch (NumberFormatException ignored) {
+            if (trimmed.chars().allMatch(c -> c >= '0' && c <= '9')) {
+                return Long.MAX_VALUE;
+            }
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0L, at.toInstant().toEpochMilli() - System.currentTimeMillis());
+        } catch (DateTimeParseException ignored) {
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.harmony.flipper.net.transport;
+
+import com.harmony.flipper.net.OsrsWikiClientException;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent calls that share a key: the first caller does the work and everyone who
+ * arrives while it is in flight receives the same result or failure.
+ */
+final class SingleFlight<K> {
+
+    private final Map<K, CompletableFuture<Object>> calls = new ConcurrentHashMap<>();
+    private final AtomicLong shared = new AtomicLong();
+
+    long getSharedCount() {
+        return shared.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T call(K key, Supplier<T> work) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = calls.putIfAbsent(key, mine);
+        if (existing != null) {
+            shared.incrementAndGet();
+            return (T) await(existing);
+        }
+        try {
+            T value = work.get();
+            calls.remove(key, mine);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            calls.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> callAsync(K key, Supplier<CompletableFuture<T>> work) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = calls.putIfAbsent(key, mine);
+        if (existing != null) {
+            shared.incrementAndGet();
+            return existing.thenApply(value -> (T) value);
+        }
+        CompletableFuture<T> started;
+        try {
+            started = work.get();
+        } catch (RuntimeException | Error e) {
+            calls.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        started.whenComplete((value, error) -> {
+            calls.remove(key, mine);
+            if (error != null) {
+                mine.completeExceptionally(error);
+            } else {
+                mine.complete(value);
+            }
+        });
+        return mine.thenApply(value -> (T) value);
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OsrsWikiClientException("Interrupted while waiting for a shared request", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new OsrsWikiClientException("Shared request failed", cause);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.harmony.flipper.scan;
+
+import com.harmony.flipper.config.Config;
+import com.harmony.flipper.data.Snapshot;
+import com.harmony.flipper.data.SnapshotDelta;
+import com.harmony.flipper.data.Table;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Item ids ordered by buy price and by the capital a full buy limit ties up, so {@link Config.Risk} caps
+ * become two binary searches instead of a pass over every item.
+ * <p>
+ * The unit price is the latest instant-sell price. Capital is that price times the buy limit; items without
+ * a known limit count as a single unit. Items without a price are not indexed. Instances are immutable;
+ * {@link #update(Table.Latest, SnapshotDelta)} re-sorts only the ids a poll touched and merges them back.
+ */
+public final class CandidateIndex {
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final Table.Latest latest;
+    private final Table.Limit limits;
+    private final long[] price;
+    private final long[] capital;
+    private final int[] byPrice;
+    private final int[] byCapital;
+
+    private CandidateIndex(Table.Latest latest, Table.Limit limits, long[] price, long[] capital,
+                           int[] byPrice, int[] byCapital) {
+        this.latest = latest;
+        this.limits = limits;
+        this.price = price;
+        this.capital = capital;
+        this.byPrice = byPrice;
+        this.byCapital = byCapital;
+    }
+
+    public static CandidateIndex of(Snapshot snapshot) {
+        Objects.requireNonNull(snapshot, "snapshot");
+        return of(snapshot.getLatestTable(), snapshot.getLimitTable());
+    }
+
+    public static CandidateIndex of(Table.Latest latest, Table.Limit limits) {
+        Objects.requireNonNull(latest, "latest");
+        Objects.requireNonNull(limits, "limits");
+        long[] price = missing(latest.capacity());
+        long[] capital = missing(latest.capacity());
+        int[] ids = new int[latest.size()];
+        int count = 0;
+        for (int i = 0; i < latest.size(); i++) {
+            int id = latest.idAt(i);
+            if (index(id, latest, limits, price, capital)) {
+                ids[count++] = id;
+            }
+        }
+        int[] byPrice = Arrays.copyOf(ids, count);
+        int[] byCapital = byPrice.clone();
+        sort(byPrice, 0, count, price);
+        sort(byCapital, 0, count, capital);
+        return new CandidateIndex(latest, limits, price, capital, byPrice, byCapital);
+    }
+
+    /**
+     * Returns the index for {@code next}, given the delta from this index's latest table to {@code next}.
+     * Only ids flagged {@link SnapshotDelta#LOW}, {@link SnapshotDelta#ADDED} or {@link SnapshotDelta#REMOVED}
+     * are re-keyed.
+     */
+    public CandidateIndex update(Table.Latest next, SnapshotDelta delta) {
+        Objects.requireNonNull(next, "next");
+        Objects.requireNonNull(delta, "delta");
+        int mask = SnapshotDelta.LOW | SnapshotDelta.ADDED | SnapshotDelta.REMOVED;
+        int capacity = Math.max(price.length, next.capacity());
+        long[] nextPrice = Arrays.copyOf(price, capacity);
+        long[] nextCapital = Arrays.copyOf(capital, capacity);
+        Arrays.fill(nextPrice, price.length, capacity, Table.MISSING);
+        Arrays.fill(nextCapital, capital.length, capacity, Table.MISSING);
+
+        boolean[] touched = new boolean[capacity];
+        int[] changed = new int[delta.size()];
+        int count = 0;
+        for (int i = 0; i < delta.size(); i++) {
+            if ((delta.flagsAt(i) & mask) == 0) {
+                continue;
+            }
+            int id = delta.idAt(i);
+            touched[id] = true;
+            nextPrice[id] = Table.MISSING;
+            nextCapital[id] = Table.MISSING;
+            if (index(id, next, limits, nextPrice, nextCapital)) {
+                changed[count++] = id;
+            }
+        }
+        if (count == 0 && !hasTouched(byPrice, touched)) {
+            return new CandidateIndex(next, limits, nextPrice, nextCapital, byPrice, byCapital);
+        }
+        int[] changedByCapital = Arrays.copyOf(changed, count);
+        sort(changed, 0, count, nextPrice);
+        sort(changedByCapital, 0, count, nextCapital);
+        return new CandidateIndex(next, limits, nextPrice, nextCapital,
+                merge(byPrice, touched, changed, count, nextPrice),
+                merge(byCapital, touched, changedByCapital, count, nextCapital));
+    }
+
+    public Table.Latest getLatest() {
+        return latest;
+    }
+
+    public Table.Limit getLimits() {
+        return limits;
+    }
+
+    public int size() {
+        return byPrice.length;
+    }
+
+    /**
+     * Ids whose unit price and limit capital are both within the caps, in ascending order of whichever
+     * key cut the universe down further.
+     */
+    public int[] select(long maxUnitPrice, long maxCapital) {
+        int priceEnd = upperBound(byPrice, price, maxUnitPrice);
+        int capitalEnd = upperBound(byCapital, capital, maxCapital);
+        int[] ids;
+        long[] other;
+        long cap;
+        int end;
+        if (priceEnd <= capitalEnd) {
+            ids = byPrice;
+            end = priceEnd;
+            other = capital;
+            cap = maxCapital;
+        } else {
+            ids = byCapital;
+            end = capitalEnd;
+            other = price;
+            cap = maxUnitPrice;
+        }
+        int[] selected = new int[end];
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            int id = ids[i];
+            if (other[id] <= cap) {
+                selected[count++] = id;
+            }
+        }
+        return count == end ? selected : Arrays.copyOf(selected, count);
+    }
+
+    public int[] select(Config.Risk risk) {
+        Objects.requireNonNull(risk, "risk");
+        return select(risk.maxUnitPriceGp, risk.maxItemCapitalGp);
+    }
+
+    private static boolean index(int id, Table.Latest latest, Table.Limit limits, long[] price, long[] capital) {
+        int unit = latest.getLow(id);
+        if (unit <= 0) {
+            return false;
+        }
+        int limit = limits.getLimit(id);
+        price[id] = unit;
+        capital[id] = (long) unit * Math.max(1, limit);
+        return true;
+    }
+
+    private static boolean hasTouched(int[] ids, boolean[] touched) {
+        for (int id : ids) {
+            if (touched[id]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops touched ids from {@code current} and merges in the re-keyed {@code changed[0, count)}.
+     */
+    private static int[] merge(int[] current, boolean[] touched, int[] changed, int count, long[] key) {
+        int[] merged = new int[current.length + count];
+        int size = 0;
+        int j = 0;
+        for (int id : current) {
+            if (touched[id]) {
+                continue;
+            }
+            while (j < count && before(changed[j], id, key)) {
+                merged[size++] = changed[j++];
+            }
+            merged[size++] = id;
+        }
+        while (j < count) {
+            merged[size++] = changed[j++];
+        }
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+
+    private static int upperBound(int[] ids, long[] key, long max) {
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (key[ids[mid]] <= max) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean before(int a, int b, long[] key) {
+        return key[a] < key[b] || (key[a] == key[b] && a < b);
+    }
+
+    /**
+     * Sorts ids by {@code key[id]}, then by id, without boxing.
+     */
+    private static void sort(int[] ids, int from, int to, long[] key) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            int mid = (from + to) >>> 1;
+            int pivot = median(ids[from], ids[mid], ids[to - 1], key);
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (before(ids[i], pivot, key)) {
+                    i++;
+                }
+                while (before(pivot, ids[j], key)) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = ids[i];
+                    ids[i++] = ids[j];
+                    ids[j--] = swap;
+                }
+            }
+            if (j + 1 - from < to - i) {
+                sort(ids, from, j + 1, key);
+                from = i;
+            } else {
+                sort(ids, i, to, key);
+                to = j + 1;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            int id = ids[i];
+            int j = i - 1;
+            while (j >= from && before(id, ids[j], key)) {
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            ids[j + 1] = id;
+        }
+    }
+
+    private static int median(int a, int b, int c, long[] key) {
+        if (before(a, b, key)) {
+            return before(b, c, key) ? b : before(a, c, key) ? c : a;
+        }
+        return before(a, c, key) ? a : before(b, c, key) ? c : b;
+    }
+
+    private static long[] missing(int capacity) {
+        long[] column = new long[capacity];
+        Arrays.fill(column, Table.MISSING);
+        return column;
+    }
+}
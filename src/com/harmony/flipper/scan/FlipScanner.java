@@ -0,0 +1,142 @@
+package com.harmony.flipper.scan;
+
+import com.harmony.flipper.analysis.ParallelEvaluator;
+import com.harmony.flipper.config.Config;
+import com.harmony.flipper.data.Snapshot;
+import com.harmony.flipper.data.Table;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Ranks every item in a {@link Snapshot} by flip margin and keeps the best {@code count}.
+ * <p>
+ * Margins are computed straight from the {@link Table} columns and fed to a bounded {@link TopK}, so a
+ * pass over the full item universe allocates nothing per item and only the winners become
+ * {@link Opportunity} objects. Items missing either price, or whose margin does not survive GE tax,
+ * are skipped.
+ */
+public final class FlipScanner {
+
+    public enum Rank {
+        /** Profit per unit after tax. */
+        PROFIT,
+        /** Profit per unit relative to the buy price. */
+        ROI,
+        /** Profit from flipping one full buy limit; items without a known limit are skipped. */
+        LIMIT_PROFIT
+    }
+
+    private final Rank rank;
+    private final int count;
+
+    public FlipScanner(Rank rank, int count) {
+        this.rank = Objects.requireNonNull(rank, "rank");
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        this.count = count;
+    }
+
+    public Rank getRank() {
+        return rank;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public List<Opportunity> scan(Snapshot snapshot) {
+        Objects.requireNonNull(snapshot, "snapshot");
+        return scan(snapshot.getLatestTable(), snapshot.getLimitTable());
+    }
+
+    public List<Opportunity> scan(Table.Latest latest, Table.Limit limits) {
+        Objects.requireNonNull(latest, "latest");
+        Objects.requireNonNull(limits, "limits");
+        TopK top = new TopK(count);
+        for (int i = 0; i < latest.size(); i++) {
+            offer(top, latest, limits, latest.idAt(i));
+        }
+        return collect(top, latest, limits);
+    }
+
+    /**
+     * Same as {@link #scan(Snapshot)}, with the item universe split across the evaluator's pool.
+     */
+    public List<Opportunity> scan(Snapshot snapshot, ParallelEvaluator evaluator) {
+        Objects.requireNonNull(snapshot, "snapshot");
+        Objects.requireNonNull(evaluator, "evaluator");
+        Table.Latest latest = snapshot.getLatestTable();
+        Table.Limit limits = snapshot.getLimitTable();
+        TopK top = evaluator.evaluate(latest, id -> score(latest, limits, id), ParallelEvaluator.topK(count));
+        return collect(top, latest, limits);
+    }
+
+    /**
+     * Scans only the items {@code candidates} allows under {@code risk}.
+     */
+    public List<Opportunity> scan(CandidateIndex candidates, Config.Risk risk) {
+        Objects.requireNonNull(candidates, "candidates");
+        int[] ids = candidates.select(risk);
+        return scan(candidates.getLatest(), candidates.getLimits(), ids, 0, ids.length);
+    }
+
+    /**
+     * Scans only {@code ids[from, to)}, for callers that already narrowed the universe.
+     */
+    public List<Opportunity> scan(Table.Latest latest, Table.Limit limits, int[] ids, int from, int to) {
+        Objects.requireNonNull(latest, "latest");
+        Objects.requireNonNull(limits, "limits");
+        Objects.checkFromToIndex(from, to, ids.length);
+        TopK top = new TopK(count);
+        for (int i = from; i < to; i++) {
+            offer(top, latest, limits, ids[i]);
+        }
+        return collect(top, latest, limits);
+    }
+
+    private void offer(TopK top, Table.Latest latest, Table.Limit limits, int id) {
+        top.offer(id, score(latest, limits, id));
+    }
+
+    /**
+     * Ranking score of {@code id}, or NaN when the item is skipped.
+     */
+    private double score(Table.Latest latest, Table.Limit limits, int id) {
+        int buy = latest.getLow(id);
+        int sell = latest.getHigh(id);
+        if (buy <= 0 || sell <= 0) {
+            return Double.NaN;
+        }
+        int profit = Opportunity.profit(buy, sell);
+        if (profit <= 0) {
+            return Double.NaN;
+        }
+        switch (rank) {
+            case PROFIT:
+                return profit;
+            case ROI:
+                return (double) profit / buy;
+            case LIMIT_PROFIT:
+                int limit = limits.getLimit(id);
+                return limit > 0 ? (double) profit * limit : Double.NaN;
+            default:
+                throw new IllegalStateException("Unknown rank " + rank);
+        }
+    }
+
+    private static List<Opportunity> collect(TopK top, Table.Latest latest, Table.Limit limits) {
+        if (top.size() == 0) {
+            return Collections.emptyList();
+        }
+        int[] ids = top.sortedIds();
+        List<Opportunity> ranked = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            ranked.add(new Opportunity(id, latest.getLow(id), latest.getHigh(id), limits.getLimit(id)));
+        }
+        return Collections.unmodifiableList(ranked);
+    }
+}
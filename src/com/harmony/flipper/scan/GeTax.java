@@ -0,0 +1,31 @@
+package com.harmony.flipper.scan;
+
+/**
+ * Grand Exchange sale tax: 2% of the sale price rounded down, capped per item, and waived for cheap items.
+ */
+public final class GeTax {
+
+    public static final int RATE_PERCENT = 2;
+    public static final int CAP_GP = 5_000_000;
+    public static final int EXEMPT_BELOW_GP = 50;
+
+    private GeTax() {
+    }
+
+    /**
+     * Tax paid on one unit sold at {@code sellPrice}.
+     */
+    public static int perUnit(int sellPrice) {
+        if (sellPrice < EXEMPT_BELOW_GP) {
+            return 0;
+        }
+        return (int) Math.min(CAP_GP, (long) sellPrice * RATE_PERCENT / 100);
+    }
+
+    /**
+     * Amount received for one unit sold at {@code sellPrice}, after tax.
+     */
+    public static int afterTax(int sellPrice) {
+        return sellPrice - perUnit(sellPrice);
+    }
+}
@@ -0,0 +1,85 @@
+package com.harmony.flipper.scan;
+
+import com.harmony.flipper.data.Table;
+
+/**
+ * One item's flip margin: buy at the latest instant-sell price, sell at the latest instant-buy price.
+ */
+public final class Opportunity {
+
+    private final int itemId;
+    private final int buyPrice;
+    private final int sellPrice;
+    private final int limit;
+
+    Opportunity(int itemId, int buyPrice, int sellPrice, int limit) {
+        this.itemId = itemId;
+        this.buyPrice = buyPrice;
+        this.sellPrice = sellPrice;
+        this.limit = limit;
+    }
+
+    public int getItemId() {
+        return itemId;
+    }
+
+    public int getBuyPrice() {
+        return buyPrice;
+    }
+
+    public int getSellPrice() {
+        return sellPrice;
+    }
+
+    public int getSpread() {
+        return sellPrice - buyPrice;
+    }
+
+    public int getTax() {
+        return GeTax.perUnit(sellPrice);
+    }
+
+    public int getProfit() {
+        return profit(buyPrice, sellPrice);
+    }
+
+    public double getRoi() {
+        return roi(buyPrice, sellPrice);
+    }
+
+    /**
+     * Buy limit per 4h window, or {@link Table#MISSING} when the mapping has none.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Profit from flipping a full buy limit, or {@link Table#MISSING} when the limit is unknown.
+     */
+    public long getLimitProfit() {
+        return limitProfit(buyPrice, sellPrice, limit);
+    }
+
+    static int profit(int buyPrice, int sellPrice) {
+        return GeTax.afterTax(sellPrice) - buyPrice;
+    }
+
+    static double roi(int buyPrice, int sellPrice) {
+        return buyPrice <= 0 ? Double.NaN : (double) profit(buyPrice, sellPrice) / buyPrice;
+    }
+
+    static long limitProfit(int buyPrice, int sellPrice, int limit) {
+        return limit < 0 ? Table.MISSING : (long) profit(buyPrice, sellPrice) * limit;
+    }
+
+    @Override
+    public String toString() {
+        return "Opportunity{itemId=" + itemId
+                + ", buyPrice=" + buyPrice
+                + ", sellPrice=" + sellPrice
+                + ", profit=" + getProfit()
+                + ", limit=" + limit
+                + '}';
+    }
+}
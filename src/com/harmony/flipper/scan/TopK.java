@@ -0,0 +1,141 @@
+package com.harmony.flipper.scan;
+
+import java.util.Arrays;
+
+/**
+ * Bounded min-heap of (item id, score) pairs that keeps the {@code k} highest scores seen.
+ * <p>
+ * Offering is O(log k) and allocation-free, so a full pass over the item universe costs O(n log k)
+ * instead of sorting every item. Ties keep the lower item id so results are deterministic.
+ */
+public final class TopK {
+
+    private final int capacity;
+    private final int[] ids;
+    private final double[] scores;
+    private int size;
+
+    public TopK(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.ids = new int[capacity];
+        this.scores = new double[capacity];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Lowest score currently kept, or negative infinity while the heap is not yet full.
+     */
+    public double threshold() {
+        return size < capacity ? Double.NEGATIVE_INFINITY : scores[0];
+    }
+
+    public boolean offer(int id, double score) {
+        if (Double.isNaN(score)) {
+            return false;
+        }
+        if (size < capacity) {
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+            return true;
+        }
+        if (!ranksAbove(id, score, ids[0], scores[0])) {
+            return false;
+        }
+        ids[0] = id;
+        scores[0] = score;
+        siftDown(0);
+        return true;
+    }
+
+    /**
+     * Folds another heap into this one, for merging per-thread results.
+     */
+    public void addAll(TopK other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.ids[i], other.scores[i]);
+        }
+    }
+
+    /**
+     * Ids ordered from the highest score to the lowest.
+     */
+    public int[] sortedIds() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> ranksAbove(ids[a], scores[a], ids[b], scores[b]) ? -1 : 1);
+        int[] sorted = new int[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = ids[order[i]];
+        }
+        return sorted;
+    }
+
+    /**
+     * Score kept for {@code id}, or NaN when it is not in the heap.
+     */
+    public double scoreOf(int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return scores[i];
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static boolean ranksAbove(int id, double score, int otherId, double otherScore) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksAbove(ids[parent], scores[parent], ids[index], scores[index])) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int right = left + 1;
+            int smallest = right < size && ranksAbove(ids[left], scores[left], ids[right], scores[right]) ? right : left;
+            if (!ranksAbove(ids[index], scores[index], ids[smallest], scores[smallest])) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
@@ -0,0 +1,104 @@
+package com.harmony.flipper.service;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.harmony.flipper.config.Config;
+import com.harmony.flipper.data.Snapshot;
+import com.harmony.flipper.net.OsrsWikiCache;
+import com.harmony.flipper.net.OsrsWikiClient;
+import com.harmony.flipper.net.PollingScheduler;
+import com.harmony.flipper.net.PriceFeed;
+import com.harmony.flipper.store.WarmStart;
+import org.rspeer.event.Service;
+
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Script service that keeps the latest price {@link Snapshot} fresh in the background while the script runs.
+ * <p>
+ * The last snapshot is saved to disk every few minutes and on shutdown. On the next start it is served
+ * straight away and revalidated in the background, so the script does not wait for /mapping and the price
+ * endpoints before its first decision.
+ */
+@Singleton
+public class PricePollingService implements Service {
+
+    private static final long SAVE_INTERVAL_MILLIS = 5 * 60 * 1000L;
+
+    private final OsrsWikiCache cache;
+    private final PollingScheduler scheduler;
+    private final PriceFeed feed = new PriceFeed();
+    private final WarmStart warmStart = new WarmStart(WarmStart.defaultFile());
+    private volatile long savedAt;
+
+    @Inject
+    public PricePollingService(Config config) {
+        this.cache = new OsrsWikiCache(new OsrsWikiClient(config.advanced.userAgent));
+        this.scheduler = new PollingScheduler(cache);
+        scheduler.subscribe(snapshot -> feed.publish(snapshot.getLatest()));
+        scheduler.subscribe(this::saveIfDue);
+    }
+
+    @Override
+    public void onSubscribe() {
+        Snapshot warm = warmStart.load();
+        if (warm != null) {
+            cache.seed(warm);
+            scheduler.seed(warm);
+        }
+        scheduler.start();
+    }
+
+    @Override
+    public void onUnsubscribe() {
+        scheduler.close();
+        feed.close();
+        Snapshot last = scheduler.getSnapshot();
+        if (last != null) {
+            save(last);
+        }
+    }
+
+    public OsrsWikiCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Most recent snapshot, or {@code null} until the first /latest, /5m and /1h polls have completed and no
+     * saved snapshot was found.
+     */
+    public Snapshot getSnapshot() {
+        return scheduler.getSnapshot();
+    }
+
+    public Runnable subscribe(Consumer<Snapshot> subscriber) {
+        return scheduler.subscribe(subscriber);
+    }
+
+    /**
+     * Per-item price changes between successive /latest polls.
+     */
+    public PriceFeed getPriceFeed() {
+        return feed;
+    }
+
+    private void saveIfDue(Snapshot snapshot) {
+        long now = System.currentTimeMillis();
+        if (now - savedAt >= SAVE_INTERVAL_MILLIS) {
+            savedAt = now;
+            save(snapshot);
+        }
+    }
+
+    /**
+     * Serialised so the final save on shutdown can never interleave with a periodic one.
+     */
+    private synchronized void save(Snapshot snapshot) {
+        try {
+            warmStart.save(snapshot);
+        } catch (UncheckedIOException ignored) {
+            // A failed save only costs the next start its head start.
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.harmony.flipper.store;
+
+import com.harmony.flipper.data.Table;
+import com.harmony.flipper.data.Time;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compact encoding of a price series for keeping long histories hot in memory or writing them to disk.
+ * <p>
+ * Timestamps are stored as zig-zag varints of their delta-of-delta, which is zero for the regular
+ * 5m/1h/6h spacing and costs one byte per point. Prices and volumes are stored as zig-zag varints of the
+ * delta from the previous point, so slowly moving values take one or two bytes. Missing values keep the
+ * {@link Table#MISSING} sentinel and round-trip unchanged.
+ */
+public final class CompressedSeries {
+
+    private static final CompressedSeries EMPTY = new CompressedSeries(new byte[]{0}, 0, 1);
+
+    private final byte[] data;
+    private final int size;
+    private final int bodyOffset;
+
+    private CompressedSeries(byte[] data, int size, int bodyOffset) {
+        this.data = data;
+        this.size = size;
+        this.bodyOffset = bodyOffset;
+    }
+
+    public static CompressedSeries encode(List<Time.Series> points) {
+        if (points == null || points.isEmpty()) {
+            return EMPTY;
+        }
+        List<Time.Series> sorted = new ArrayList<>(points);
+        sorted.sort(Comparator.comparingLong(Time.Series::getTimestamp));
+        Encoder encoder = new Encoder(sorted.size());
+        for (Time.Series point : sorted) {
+            encoder.add(point.getTimestamp(),
+                    orMissing(point.getAvgHighPrice()),
+                    orMissing(point.getAvgLowPrice()),
+                    orMissing(point.getHighPriceVolume()),
+                    orMissing(point.getLowPriceVolume()));
+        }
+        return encoder.finish();
+    }
+
+    public static CompressedSeries encode(TimeseriesStore.Range range) {
+        Objects.requireNonNull(range, "range");
+        if (range.isEmpty()) {
+            return EMPTY;
+        }
+        Encoder encoder = new Encoder(range.size());
+        for (int i = 0; i < range.size(); i++) {
+            encoder.add(range.getTimestamp(i),
+                    range.getAvgHighPrice(i),
+                    range.getAvgLowPrice(i),
+                    range.getHighPriceVolume(i),
+                    range.getLowPriceVolume(i));
+        }
+        return encoder.finish();
+    }
+
+    /**
+     * Restores a series from bytes produced by {@link #toByteArray()}.
+     */
+    public static CompressedSeries wrap(byte[] bytes) {
+        Objects.requireNonNull(bytes, "bytes");
+        long size = 0L;
+        int position = 0;
+        byte b;
+        do {
+            if (position >= bytes.length || position >= 5) {
+                throw new IllegalArgumentException("Invalid compressed series header");
+            }
+            b = bytes[position];
+            size |= (long) (b & 0x7F) << (7 * position);
+            position++;
+        } while (b < 0);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid compressed series header");
+        }
+        return new CompressedSeries(bytes.clone(), (int) size, position);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int sizeInBytes() {
+        return data.length;
+    }
+
+    public byte[] toByteArray() {
+        return data.clone();
+    }
+
+    /**
+     * Returns a cursor positioned before the first point. The cursor itself is the only allocation.
+     */
+    public Cursor cursor() {
+        return new Cursor(this);
+    }
+
+    /**
+     * Forward-only decoder; call {@link #next()} before reading each point. {@link #reset(CompressedSeries)}
+     * lets one cursor walk many series without allocating.
+     */
+    public static final class Cursor {
+        private byte[] data;
+        private int remaining;
+        private int position;
+        private long timestamp;
+        private long delta;
+        private int avgHighPrice;
+        private int avgLowPrice;
+        private long highPriceVolume;
+        private long lowPriceVolume;
+
+        private Cursor(CompressedSeries series) {
+            reset(series);
+        }
+
+        public Cursor reset(CompressedSeries series) {
+            Objects.requireNonNull(series, "series");
+            data = series.data;
+            remaining = series.size;
+            position = series.bodyOffset;
+            timestamp = 0L;
+            delta = 0L;
+            avgHighPrice = 0;
+            avgLowPrice = 0;
+            highPriceVolume = 0L;
+            lowPriceVolume = 0L;
+            return this;
+        }
+
+        public boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            delta += readZigZag();
+            timestamp += delta;
+            avgHighPrice += (int) readZigZag();
+            avgLowPrice += (int) readZigZag();
+            highPriceVolume += readZigZag();
+            lowPriceVolume += readZigZag();
+            return true;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public int getAvgHighPrice() {
+            return avgHighPrice;
+        }
+
+        public int getAvgLowPrice() {
+            return avgLowPrice;
+        }
+
+        public long getHighPriceVolume() {
+            return highPriceVolume;
+        }
+
+        public long getLowPriceVolume() {
+            return lowPriceVolume;
+        }
+
+        private long readZigZag() {
+            long result = 0L;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                result |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return (result >>> 1) ^ -(result & 1);
+        }
+    }
+
+    private static final class Encoder {
+        private final int size;
+        private final int bodyOffset;
+        private byte[] buffer;
+        private int length;
+        private long timestamp;
+        private long delta;
+        private int avgHighPrice;
+        private int avgLowPrice;
+        private long highPriceVolume;
+        private long lowPriceVolume;
+
+        private Encoder(int size) {
+            this.size = size;
+            this.buffer = new byte[16 + size * 8];
+            writeVarLong(size);
+            this.bodyOffset = length;
+        }
+
+        private void add(long timestamp, int avgHighPrice, int avgLowPrice, long highPriceVolume, long lowPriceVolume) {
+            long nextDelta = timestamp - this.timestamp;
+            writeZigZag(nextDelta - delta);
+            delta = nextDelta;
+            this.timestamp = timestamp;
+            writeZigZag((long) avgHighPrice - this.avgHighPrice);
+            this.avgHighPrice = avgHighPrice;
+            writeZigZag((long) avgLowPrice - this.avgLowPrice);
+            this.avgLowPrice = avgLowPrice;
+            writeZigZag(highPriceVolume - this.highPriceVolume);
+            this.highPriceVolume = highPriceVolume;
+            writeZigZag(lowPriceVolume - this.lowPriceVolume);
+            this.lowPriceVolume = lowPriceVolume;
+        }
+
+        private CompressedSeries finish() {
+            return new CompressedSeries(Arrays.copyOf(buffer, length), size, bodyOffset);
+        }
+
+        private void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        private void writeVarLong(long value) {
+            if (length + 10 > buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            while ((value & ~0x7FL) != 0) {
+                buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[length++] = (byte) value;
+        }
+    }
+
+    private static int orMissing(Integer value) {
+        return value == null ? Table.MISSING : value;
+    }
+
+    private static long orMissing(Long value) {
+        return value == null ? Table.MISSING : value;
+    }
+}
@@ -0,0 +1,689 @@
+package com.harmony.flipper.store;
+
+import com.harmony.flipper.data.ItemMapping;
+import com.harmony.flipper.data.Price;
+import com.harmony.flipper.data.Response;
+import com.harmony.flipper.data.Snapshot;
+import com.harmony.flipper.data.Table;
+import com.harmony.flipper.data.Time;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Versioned binary encoding of a {@link Snapshot} with fixed-width, id-sorted columns.
+ * <p>
+ * The file starts with a header holding the byte offset of each section (0 when absent; a response with no
+ * items is still written, as a section with a count of 0, so it reads back as empty rather than absent). Within a
+ * section every column is a packed big-endian array, so {@link View} reads values straight out of the
+ * mapped file: id lookups are a binary search over the id column and nothing is deserialised up front.
+ * Missing values read as {@link Table#MISSING}.
+ */
+public final class SnapshotFile {
+
+    static final int MAGIC = 0x4846534E; // "HFSN"
+    static final int VERSION = 1;
+
+    private static final int LATEST = 0;
+    private static final int FIVE_MINUTE = 1;
+    private static final int ONE_HOUR = 2;
+    private static final int VOLUMES = 3;
+    private static final int MAPPING = 4;
+    private static final int TIMESERIES = 5;
+    private static final int SECTIONS = 6;
+    private static final int HEADER_BYTES = 8 + SECTIONS * 8;
+
+    private SnapshotFile() {
+    }
+
+    public static void write(Snapshot snapshot, Path file) {
+        Objects.requireNonNull(snapshot, "snapshot");
+        Objects.requireNonNull(file, "file");
+        ByteBuffer[] sections = new ByteBuffer[SECTIONS];
+        sections[LATEST] = snapshot.getLatest() == null ? null : encodeLatest(snapshot.getLatestTable());
+        sections[FIVE_MINUTE] = snapshot.getFiveMinute() == null ? null : encodeAggregate(snapshot.getFiveMinuteTable());
+        sections[ONE_HOUR] = snapshot.getOneHour() == null ? null : encodeAggregate(snapshot.getOneHourTable());
+        sections[VOLUMES] = snapshot.getVolumes() == null ? null : encodeVolumes(snapshot.getVolumeTable());
+        sections[MAPPING] = snapshot.getMapping().isEmpty() ? null : encodeMapping(snapshot.getMapping());
+        sections[TIMESERIES] = snapshot.getTimeseries().isEmpty() ? null : encodeTimeseries(snapshot.getTimeseries());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION);
+        long offset = HEADER_BYTES;
+        for (ByteBuffer section : sections) {
+            header.putLong(section == null ? 0L : offset);
+            offset += section == null ? 0 : section.remaining();
+        }
+        header.flip();
+
+        Path temp = null;
+        try {
+            // A unique temp file per write, so concurrent writers never share one; it reaches the disk before
+            // the rename, so a crash leaves either the old snapshot or the new one, never a partial file.
+            Path directory = file.toAbsolutePath().getParent();
+            temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                writeFully(out, header);
+                for (ByteBuffer section : sections) {
+                    if (section != null) {
+                        writeFully(out, section);
+                    }
+                }
+                out.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException("Unable to write snapshot to " + file, e);
+        }
+    }
+
+    public static View open(Path file) {
+        Objects.requireNonNull(file, "file");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a snapshot file: " + file + " (" + size + " bytes)");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.BIG_ENDIAN);
+            return new View(buffer, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Same as {@link #open(Path)}, but the file is read onto the heap instead of mapped, so it can be
+     * replaced or deleted while the view is still in use.
+     */
+    public static View read(Path file) {
+        Objects.requireNonNull(file, "file");
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            if (bytes.length < HEADER_BYTES) {
+                throw new IOException("Not a snapshot file: " + file + " (" + bytes.length + " bytes)");
+            }
+            return new View(ByteBuffer.wrap(bytes), file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Zero-copy view over a snapshot file. Sections absent from the file read as empty; {@link Columns#isPresent()}
+     * tells them apart from sections written with no items.
+     */
+    public static final class View {
+        private final LatestView latest;
+        private final AggregateView fiveMinute;
+        private final AggregateView oneHour;
+        private final VolumeView volumes;
+        private final MappingView mapping;
+        private final TimeseriesView timeseries;
+
+        private View(ByteBuffer buffer, Path file) throws IOException {
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported snapshot version " + buffer.getInt(4) + " in " + file);
+            }
+            this.latest = new LatestView(buffer, section(buffer, LATEST));
+            this.fiveMinute = new AggregateView(buffer, section(buffer, FIVE_MINUTE));
+            this.oneHour = new AggregateView(buffer, section(buffer, ONE_HOUR));
+            this.volumes = new VolumeView(buffer, section(buffer, VOLUMES));
+            this.mapping = new MappingView(buffer, section(buffer, MAPPING));
+            this.timeseries = new TimeseriesView(buffer, section(buffer, TIMESERIES));
+        }
+
+        private static int section(ByteBuffer buffer, int index) {
+            return (int) buffer.getLong(8 + index * 8);
+        }
+
+        public LatestView getLatest() {
+            return latest;
+        }
+
+        public AggregateView getFiveMinute() {
+            return fiveMinute;
+        }
+
+        public AggregateView getOneHour() {
+            return oneHour;
+        }
+
+        public VolumeView getVolumes() {
+            return volumes;
+        }
+
+        public MappingView getMapping() {
+            return mapping;
+        }
+
+        public TimeseriesView getTimeseries() {
+            return timeseries;
+        }
+
+        /**
+         * Decodes the price, volume and mapping sections into a heap {@link Snapshot}, for warm starts.
+         * Absent sections come back as {@code null} responses and empty ones as empty responses; timeseries stay
+         * in {@link #getTimeseries()}.
+         */
+        public Snapshot toSnapshot() {
+            return Snapshot.of(
+                    latest.isPresent() ? latest.toResponse() : null,
+                    fiveMinute.isPresent() ? fiveMinute.toResponse() : null,
+                    oneHour.isPresent() ? oneHour.toResponse() : null,
+                    volumes.isPresent() ? volumes.toResponse() : null,
+                    mapping.toList(),
+                    null);
+        }
+    }
+
+    /**
+     * Shared id column handling: a count followed by the sorted ids.
+     */
+    public abstract static class Columns {
+        final ByteBuffer buffer;
+        final boolean present;
+        final int size;
+        final int ids;
+
+        Columns(ByteBuffer buffer, int countOffset) {
+            this.buffer = buffer;
+            this.present = countOffset != 0;
+            this.size = present ? buffer.getInt(countOffset) : 0;
+            this.ids = countOffset + 4;
+        }
+
+        /**
+         * Whether the section was written, possibly with no items.
+         */
+        public boolean isPresent() {
+            return present;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int idAt(int index) {
+            return buffer.getInt(ids + Objects.checkIndex(index, size) * 4);
+        }
+
+        public boolean contains(int itemId) {
+            return indexOf(itemId) >= 0;
+        }
+
+        /**
+         * Position of {@code itemId} in the id column, or -1 when absent.
+         */
+        public int indexOf(int itemId) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int id = buffer.getInt(ids + mid * 4);
+                if (id < itemId) {
+                    low = mid + 1;
+                } else if (id > itemId) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        int column(int previous, int width) {
+            return previous + size * width;
+        }
+
+        int intAt(int column, int itemId) {
+            int index = indexOf(itemId);
+            return index < 0 ? Table.MISSING : buffer.getInt(column + index * 4);
+        }
+
+        long longAt(int column, int itemId) {
+            int index = indexOf(itemId);
+            return index < 0 ? Table.MISSING : buffer.getLong(column + index * 8);
+        }
+
+        Integer boxedInt(int column, int index) {
+            int value = buffer.getInt(column + index * 4);
+            return value == Table.MISSING ? null : value;
+        }
+
+        Long boxedLong(int column, int index) {
+            long value = buffer.getLong(column + index * 8);
+            return value == Table.MISSING ? null : value;
+        }
+
+        int initialCapacity() {
+            return size * 4 / 3 + 1;
+        }
+    }
+
+    public static final class LatestView extends Columns {
+        private final int high;
+        private final int highTime;
+        private final int low;
+        private final int lowTime;
+
+        private LatestView(ByteBuffer buffer, int offset) {
+            super(buffer, offset);
+            this.high = column(ids, 4);
+            this.highTime = column(high, 4);
+            this.low = column(highTime, 8);
+            this.lowTime = column(low, 4);
+        }
+
+        public int getHigh(int itemId) {
+            return intAt(high, itemId);
+        }
+
+        public long getHighTime(int itemId) {
+            return longAt(highTime, itemId);
+        }
+
+        public int getLow(int itemId) {
+            return intAt(low, itemId);
+        }
+
+        public long getLowTime(int itemId) {
+            return longAt(lowTime, itemId);
+        }
+
+        public Response.Latest toResponse() {
+            Map<Integer, Price.Latest> data = new LinkedHashMap<>(initialCapacity());
+            for (int i = 0; i < size; i++) {
+                data.put(idAt(i), new Price.Latest(boxedInt(high, i), boxedLong(highTime, i),
+                        boxedInt(low, i), boxedLong(lowTime, i)));
+            }
+            return Response.Latest.of(data);
+        }
+    }
+
+    public static final class AggregateView extends Columns {
+        private final long timestamp;
+        private final int avgHighPrice;
+        private final int highPriceVolume;
+        private final int avgLowPrice;
+        private final int lowPriceVolume;
+
+        private AggregateView(ByteBuffer buffer, int offset) {
+            super(buffer, offset == 0 ? 0 : offset + 8);
+            this.timestamp = offset == 0 ? 0L : buffer.getLong(offset);
+            this.avgHighPrice = column(ids, 4);
+            this.highPriceVolume = column(avgHighPrice, 4);
+            this.avgLowPrice = column(highPriceVolume, 8);
+            this.lowPriceVolume = column(avgLowPrice, 4);
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public int getAvgHighPrice(int itemId) {
+            return intAt(avgHighPrice, itemId);
+        }
+
+        public long getHighPriceVolume(int itemId) {
+            return longAt(highPriceVolume, itemId);
+        }
+
+        public int getAvgLowPrice(int itemId) {
+            return intAt(avgLowPrice, itemId);
+        }
+
+        public long getLowPriceVolume(int itemId) {
+            return longAt(lowPriceVolume, itemId);
+        }
+
+        public Response.Aggregate toResponse() {
+            Map<Integer, Price.Aggregate> data = new LinkedHashMap<>(initialCapacity());
+            for (int i = 0; i < size; i++) {
+                data.put(idAt(i), new Price.Aggregate(boxedInt(avgHighPrice, i), boxedLong(highPriceVolume, i),
+                        boxedInt(avgLowPrice, i), boxedLong(lowPriceVolume, i)));
+            }
+            return Response.Aggregate.of(timestamp, data);
+        }
+    }
+
+    public static final class VolumeView extends Columns {
+        private final long timestamp;
+        private final int volume;
+
+        private VolumeView(ByteBuffer buffer, int offset) {
+            super(buffer, offset == 0 ? 0 : offset + 8);
+            this.timestamp = offset == 0 ? 0L : buffer.getLong(offset);
+            this.volume = column(ids, 4);
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getVolume(int itemId) {
+            return longAt(volume, itemId);
+        }
+
+        public Response.Volume toResponse() {
+            Map<Integer, Long> data = new LinkedHashMap<>(initialCapacity());
+            for (int i = 0; i < size; i++) {
+                data.put(idAt(i), boxedLong(volume, i));
+            }
+            return Response.Volume.of(timestamp, data);
+        }
+    }
+
+    public static final class MappingView extends Columns {
+        private final int members;
+        private final int lowAlch;
+        private final int limit;
+        private final int value;
+        private final int highAlch;
+        private final int name;
+        private final int examine;
+        private final int icon;
+        private final int strings;
+
+        private MappingView(ByteBuffer buffer, int offset) {
+            super(buffer, offset);
+            this.members = column(ids, 4);
+            this.lowAlch = column(members, 1);
+            this.limit = column(lowAlch, 4);
+            this.value = column(limit, 4);
+            this.highAlch = column(value, 4);
+            this.name = column(highAlch, 4);
+            this.examine = column(name, 4);
+            this.icon = column(examine, 4);
+            this.strings = column(icon, 4);
+        }
+
+        public boolean isMembers(int itemId) {
+            int index = indexOf(itemId);
+            return index >= 0 && buffer.get(members + index) != 0;
+        }
+
+        public int getLowAlch(int itemId) {
+            return intAt(lowAlch, itemId);
+        }
+
+        public int getLimit(int itemId) {
+            return intAt(limit, itemId);
+        }
+
+        public int getValue(int itemId) {
+            return intAt(value, itemId);
+        }
+
+        public int getHighAlch(int itemId) {
+            return intAt(highAlch, itemId);
+        }
+
+        public String getName(int itemId) {
+            return stringAt(name, itemId);
+        }
+
+        public String getExamine(int itemId) {
+            return stringAt(examine, itemId);
+        }
+
+        public String getIcon(int itemId) {
+            return stringAt(icon, itemId);
+        }
+
+        public List<ItemMapping> toList() {
+            List<ItemMapping> items = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                items.add(new ItemMapping(idAt(i),
+                        stringAtIndex(name, i),
+                        stringAtIndex(examine, i),
+                        buffer.get(members + i) != 0,
+                        boxedInt(lowAlch, i),
+                        boxedInt(highAlch, i),
+                        boxedInt(value, i),
+                        boxedInt(limit, i),
+                        stringAtIndex(icon, i)));
+            }
+            return items;
+        }
+
+        private String stringAt(int column, int itemId) {
+            int index = indexOf(itemId);
+            return index < 0 ? null : stringAtIndex(column, index);
+        }
+
+        private String stringAtIndex(int column, int index) {
+            int position = buffer.getInt(column + index * 4);
+            if (position < 0) {
+                return null;
+            }
+            int start = strings + position;
+            int length = buffer.getInt(start);
+            byte[] bytes = new byte[length];
+            buffer.duplicate().position(start + 4).get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    public static final class TimeseriesView extends Columns {
+        private final int starts;
+        private final int records;
+
+        private TimeseriesView(ByteBuffer buffer, int offset) {
+            super(buffer, offset);
+            this.starts = column(ids, 4);
+            this.records = starts + (size + 1) * 4;
+        }
+
+        public TimeseriesStore.Range getSeries(int itemId) {
+            int index = indexOf(itemId);
+            if (index < 0) {
+                return TimeseriesStore.Range.EMPTY;
+            }
+            int first = buffer.getInt(starts + index * 4);
+            int end = buffer.getInt(starts + (index + 1) * 4);
+            return new TimeseriesStore.Range(buffer, records + first * TimeseriesStore.RECORD_BYTES, end - first);
+        }
+    }
+
+    private static ByteBuffer encodeLatest(Table.Latest table) {
+        int size = table.size();
+        ByteBuffer out = ByteBuffer.allocate(4 + size * (4 + 4 + 8 + 4 + 8));
+        out.putInt(size);
+        for (int i = 0; i < size; i++) {
+            out.putInt(table.idAt(i));
+        }
+        for (int i = 0; i < size; i++) {
+            out.putInt(table.getHigh(table.idAt(i)));
+        }
+        for (int i = 0; i < size; i++) {
+            out.putLong(table.getHighTime(table.idAt(i)));
+        }
+        for (int i = 0; i < size; i++) {
+            out.putInt(table.getLow(table.idAt(i)));
+        }
+        for (int i = 0; i < size; i++) {
+            out.putLong(table.getLowTime(table.idAt(i)));
+        }
+        return out.flip();
+    }
+
+    private static ByteBuffer encodeAggregate(Table.Aggregate table) {
+        int size = table.size();
+        ByteBuffer out = ByteBuffer.allocate(8 + 4 + size * (4 + 4 + 8 + 4 + 8));
+        out.putLong(table.getTimestamp()).putInt(size);
+        for (int i = 0; i < size; i++) {
+            out.putInt(table.idAt(i));
+        }
+        for (int i = 0; i < size; i++) {
+            out.putInt(table.getAvgHighPrice(table.idAt(i)));
+        }
+        for (int i = 0; i < size; i++) {
+            out.putLong(table.getHighPriceVolume(table.idAt(i)));
+        }
+        for (int i = 0; i < size; i++) {
+            out.putInt(table.getAvgLowPrice(table.idAt(i)));
+        }
+        for (int i = 0; i < size; i++) {
+            out.putLong(table.getLowPriceVolume(table.idAt(i)));
+        }
+        return out.flip();
+    }
+
+    private static ByteBuffer encodeVolumes(Table.Volume table) {
+        int size = table.size();
+        ByteBuffer out = ByteBuffer.allocate(8 + 4 + size * (4 + 8));
+        out.putLong(table.getTimestamp()).putInt(size);
+        for (int i = 0; i < size; i++) {
+            out.putInt(table.idAt(i));
+        }
+        for (int i = 0; i < size; i++) {
+            out.putLong(table.getVolume(table.idAt(i)));
+        }
+        return out.flip();
+    }
+
+    private static ByteBuffer encodeMapping(List<ItemMapping> mapping) {
+        List<ItemMapping> sorted = new ArrayList<>(mapping.size());
+        for (ItemMapping item : mapping) {
+            if (item != null) {
+                sorted.add(item);
+            }
+        }
+        sorted.sort(Comparator.comparingInt(ItemMapping::getId));
+        int size = sorted.size();
+
+        StringPool pool = new StringPool();
+        int[][] stringColumns = new int[3][size];
+        for (int i = 0; i < size; i++) {
+            ItemMapping item = sorted.get(i);
+            stringColumns[0][i] = pool.add(item.getName());
+            stringColumns[1][i] = pool.add(item.getExamine());
+            stringColumns[2][i] = pool.add(item.getIcon());
+        }
+        byte[] strings = pool.toByteArray();
+
+        ByteBuffer out = ByteBuffer.allocate(4 + size * (4 + 1 + 4 * 4 + 3 * 4) + strings.length);
+        out.putInt(size);
+        for (ItemMapping item : sorted) {
+            out.putInt(item.getId());
+        }
+        for (ItemMapping item : sorted) {
+            out.put((byte) (item.isMembers() ? 1 : 0));
+        }
+        for (ItemMapping item : sorted) {
+            out.putInt(orMissing(item.getLowAlch()));
+        }
+        for (ItemMapping item : sorted) {
+            out.putInt(orMissing(item.getLimit()));
+        }
+        for (ItemMapping item : sorted) {
+            out.putInt(orMissing(item.getValue()));
+        }
+        for (ItemMapping item : sorted) {
+            out.putInt(orMissing(item.getHighAlch()));
+        }
+        for (int[] column : stringColumns) {
+            for (int position : column) {
+                out.putInt(position);
+            }
+        }
+        out.put(strings);
+        return out.flip();
+    }
+
+    private static ByteBuffer encodeTimeseries(Map<Integer, Response.Timeseries> timeseries) {
+        List<Response.Timeseries> sorted = new ArrayList<>(timeseries.size());
+        int points = 0;
+        for (Response.Timeseries series : timeseries.values()) {
+            if (series != null) {
+                sorted.add(series);
+                points += series.getData().size();
+            }
+        }
+        sorted.sort(Comparator.comparingInt(Response.Timeseries::getItemId));
+        int size = sorted.size();
+
+        ByteBuffer out = ByteBuffer.allocate(4 + size * 4 + (size + 1) * 4 + points * TimeseriesStore.RECORD_BYTES);
+        out.putInt(size);
+        for (Response.Timeseries series : sorted) {
+            out.putInt(series.getItemId());
+        }
+        int start = 0;
+        for (Response.Timeseries series : sorted) {
+            out.putInt(start);
+            start += series.getData().size();
+        }
+        out.putInt(start);
+        for (Response.Timeseries series : sorted) {
+            List<Time.Series> data = new ArrayList<>(series.getData());
+            data.sort(Comparator.comparingLong(Time.Series::getTimestamp));
+            for (Time.Series point : data) {
+                TimeseriesStore.putRecord(out, point);
+            }
+        }
+        return out.flip();
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static void deleteQuietly(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException ignored) {
+            // Left behind; the next write uses a new name anyway.
+        }
+    }
+
+    private static int orMissing(Integer value) {
+        return value == null ? Table.MISSING : value;
+    }
+
+    private static final class StringPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private int add(String value) {
+            if (value == null) {
+                return -1;
+            }
+            int position = bytes.size();
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            int length = encoded.length;
+            bytes.write(length >>> 24);
+            bytes.write(length >>> 16);
+            bytes.write(length >>> 8);
+            bytes.write(length);
+            bytes.write(encoded, 0, length);
+            return position;
+        }
+
+        private byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+}
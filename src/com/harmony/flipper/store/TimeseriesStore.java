@@ -0,0 +1,465 @@
+package com.harmony.flipper.store;
+
+import com.harmony.flipper.data.Response;
+import com.harmony.flipper.data.Table;
+import com.harmony.flipper.data.Time;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only on-disk history of {@link Time.Series} points, one file per (item id, {@link Time.Step}).
+ * <p>
+ * Each file is a small header followed by fixed-width records sorted by timestamp. Files are read through
+ * a memory mapping, so {@link Range} lookups touch only the pages they need and never materialise points
+ * as objects. Missing prices and volumes read as {@link Table#MISSING}.
+ */
+public final class TimeseriesStore implements Closeable {
+
+    static final int MAGIC = 0x48465453; // "HFTS"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 32;
+
+    private static final String EXTENSION = ".ts";
+    private static final String ALTERNATE_SUFFIX = ".alt";
+    private static final Mover ATOMIC_MOVE = (source, target) ->
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    private final Path directory;
+    private final Mover mover;
+    private final Map<Long, Series> series = new ConcurrentHashMap<>();
+
+    public TimeseriesStore(Path directory) {
+        this(directory, ATOMIC_MOVE);
+    }
+
+    /**
+     * @param mover atomically replaces a file; tests substitute one that fails like Windows does
+     */
+    TimeseriesStore(Path directory, Mover mover) {
+        this.directory = Objects.requireNonNull(directory, "directory");
+        this.mover = Objects.requireNonNull(mover, "mover");
+        try {
+            for (Time.Step step : Time.Step.values()) {
+                Files.createDirectories(directory.resolve(step.getValue()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create timeseries store at " + directory, e);
+        }
+    }
+
+    /**
+     * Merges freshly fetched points into the stored history and returns how many were new.
+     */
+    public int merge(Response.Timeseries timeseries, Time.Step step) {
+        Objects.requireNonNull(timeseries, "timeseries");
+        return merge(timeseries.getItemId(), step, timeseries.getData());
+    }
+
+    public int merge(int itemId, Time.Step step, List<Time.Series> points) {
+        Objects.requireNonNull(step, "step");
+        if (points == null || points.isEmpty()) {
+            return 0;
+        }
+        return open(itemId, step).merge(points);
+    }
+
+    public Range range(int itemId, Time.Step step, long fromInclusive, long toExclusive) {
+        Objects.requireNonNull(step, "step");
+        return open(itemId, step).range(fromInclusive, toExclusive);
+    }
+
+    public Range all(int itemId, Time.Step step) {
+        return range(itemId, step, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Forgets the cached mappings; no file handles are held between calls.
+     */
+    @Override
+    public void close() {
+        series.clear();
+    }
+
+    private Series open(int itemId, Time.Step step) {
+        if (itemId < 0) {
+            throw new IllegalArgumentException("itemId must not be negative");
+        }
+        long key = ((long) step.ordinal() << 32) | itemId;
+        return series.computeIfAbsent(key, ignored ->
+                new Series(directory.resolve(step.getValue()).resolve(itemId + EXTENSION), mover));
+    }
+
+    static void putRecord(ByteBuffer buffer, Time.Series point) {
+        buffer.putLong(point.getTimestamp())
+                .putInt(orMissing(point.getAvgHighPrice()))
+                .putInt(orMissing(point.getAvgLowPrice()))
+                .putLong(orMissing(point.getHighPriceVolume()))
+                .putLong(orMissing(point.getLowPriceVolume()));
+    }
+
+    private static int orMissing(Integer value) {
+        return value == null ? Table.MISSING : value;
+    }
+
+    private static long orMissing(Long value) {
+        return value == null ? Table.MISSING : value;
+    }
+
+    interface Mover {
+        void move(Path source, Path target) throws IOException;
+    }
+
+    /**
+     * Read-only view over a contiguous run of stored points, in ascending timestamp order.
+     */
+    public static final class Range {
+        static final Range EMPTY = new Range(ByteBuffer.allocate(0), 0, 0);
+
+        private final ByteBuffer buffer;
+        private final int base;
+        private final int size;
+
+        /**
+         * @param base byte offset of the first record of the range inside {@code buffer}
+         */
+        Range(ByteBuffer buffer, int base, int size) {
+            this.buffer = buffer;
+            this.base = base;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public long getTimestamp(int index) {
+            return buffer.getLong(offset(index));
+        }
+
+        public int getAvgHighPrice(int index) {
+            return buffer.getInt(offset(index) + 8);
+        }
+
+        public int getAvgLowPrice(int index) {
+            return buffer.getInt(offset(index) + 12);
+        }
+
+        public long getHighPriceVolume(int index) {
+            return buffer.getLong(offset(index) + 16);
+        }
+
+        public long getLowPriceVolume(int index) {
+            return buffer.getLong(offset(index) + 24);
+        }
+
+        private int offset(int index) {
+            Objects.checkIndex(index, size);
+            return base + index * RECORD_BYTES;
+        }
+    }
+
+    /**
+     * One file. No channel is held between calls, so thousands of series cost no file descriptors: appends
+     * open the file briefly and reads go through a read-only mapping, which stays valid after its channel is
+     * closed and is re-established lazily after the file grows.
+     * <p>
+     * The file lives under one of two names. Rewrites normally replace the current name atomically; where that
+     * is refused because a live {@link Range} still maps the file, the rewrite moves to the other name instead
+     * and the old file is left untouched. Points are only ever added, so when both names exist the longer file
+     * is the current one.
+     */
+    private static final class Series {
+        private final Path primary;
+        private final Path alternate;
+        private final Mover mover;
+        private Path file;
+        private long length;
+        private volatile MappedByteBuffer mapped;
+
+        private Series(Path primary, Mover mover) {
+            this.primary = primary;
+            this.alternate = primary.resolveSibling(primary.getFileName() + ALTERNATE_SUFFIX);
+            this.mover = mover;
+            this.file = current();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                length = recover(channel);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to open " + file, e);
+            }
+        }
+
+        private Path current() {
+            try {
+                if (!Files.exists(alternate)) {
+                    return primary;
+                }
+                if (!Files.exists(primary) || Files.size(alternate) > Files.size(primary)) {
+                    deleteQuietly(primary);
+                    return alternate;
+                }
+                deleteQuietly(alternate);
+                return primary;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to open " + primary, e);
+            }
+        }
+
+        /**
+         * Checks the header and cuts a torn trailing record, left by a crash mid-append, back to the last
+         * whole one. Returns the resulting file length.
+         */
+        private long recover(FileChannel channel) throws IOException {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                // Nothing but a partial header was ever written.
+                channel.truncate(0);
+                writeFully(channel, header(), 0);
+                return HEADER_BYTES;
+            }
+            ByteBuffer header = ByteBuffer.allocate(8);
+            while (header.hasRemaining()) {
+                channel.read(header, header.position());
+            }
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported timeseries file " + file);
+            }
+            long whole = size - (size - HEADER_BYTES) % RECORD_BYTES;
+            if (whole != size) {
+                channel.truncate(whole);
+            }
+            return whole;
+        }
+
+        private MappedByteBuffer mapped() {
+            MappedByteBuffer buffer = mapped;
+            return buffer != null ? buffer : remap();
+        }
+
+        private synchronized MappedByteBuffer remap() {
+            MappedByteBuffer buffer = mapped;
+            if (buffer != null) {
+                return buffer;
+            }
+            if (length > Integer.MAX_VALUE) {
+                throw new UncheckedIOException(new IOException("Timeseries file too large: " + file));
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to map " + file, e);
+            }
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            mapped = buffer;
+            return buffer;
+        }
+
+        private static int countOf(ByteBuffer buffer) {
+            return (buffer.capacity() - HEADER_BYTES) / RECORD_BYTES;
+        }
+
+        private synchronized int merge(List<Time.Series> points) {
+            List<Time.Series> incoming = new ArrayList<>(points);
+            incoming.sort(Comparator.comparingLong(Time.Series::getTimestamp));
+            MappedByteBuffer buffer = mapped();
+            int count = countOf(buffer);
+            long last = count == 0 ? Long.MIN_VALUE : timestampAt(buffer, count - 1);
+
+            List<Time.Series> appended = new ArrayList<>();
+            boolean backfill = false;
+            long previous = Long.MIN_VALUE;
+            for (Time.Series point : incoming) {
+                long timestamp = point.getTimestamp();
+                if (timestamp == previous) {
+                    continue;
+                }
+                previous = timestamp;
+                if (timestamp > last) {
+                    appended.add(point);
+                } else if (indexOf(buffer, timestamp) < 0) {
+                    backfill = true;
+                }
+            }
+            try {
+                if (backfill) {
+                    return rewrite(buffer, incoming);
+                }
+                if (appended.isEmpty()) {
+                    return 0;
+                }
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    writeFully(channel, encode(appended), length);
+                }
+                length += (long) appended.size() * RECORD_BYTES;
+                mapped = null;
+                return appended.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to append to " + file, e);
+            }
+        }
+
+        /**
+         * Points older than the newest stored one but missing from the file force a sorted rewrite into a
+         * temporary file that then atomically takes the place of the old one. The old file is never written
+         * to, so existing readers keep seeing their points at the same indices.
+         */
+        private int rewrite(MappedByteBuffer current, List<Time.Series> incoming) throws IOException {
+            int existing = countOf(current);
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            int added = 0;
+            long written;
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                out.write(header());
+                ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+                int i = 0;
+                int j = 0;
+                long previous = Long.MIN_VALUE;
+                while (i < existing || j < incoming.size()) {
+                    long stored = i < existing ? timestampAt(current, i) : Long.MAX_VALUE;
+                    long fresh = j < incoming.size() ? incoming.get(j).getTimestamp() : Long.MAX_VALUE;
+                    record.clear();
+                    if (stored <= fresh) {
+                        int offset = HEADER_BYTES + i * RECORD_BYTES;
+                        for (int b = 0; b < RECORD_BYTES; b++) {
+                            record.put(current.get(offset + b));
+                        }
+                        i++;
+                        if (stored == fresh) {
+                            j++;
+                        }
+                        previous = stored;
+                    } else {
+                        j++;
+                        if (fresh == previous) {
+                            continue;
+                        }
+                        putRecord(record, incoming.get(j - 1));
+                        previous = fresh;
+                        added++;
+                    }
+                    record.flip();
+                    while (record.hasRemaining()) {
+                        out.write(record);
+                    }
+                }
+                out.force(false);
+                written = out.size();
+            }
+            // Drop our own mapping before replacing the file; no channel to it is open at this point.
+            mapped = null;
+            Path previous = file;
+            file = replace(temp);
+            length = written;
+            if (!file.equals(previous)) {
+                // Fails while an old Range still maps it; the next open then drops it as the shorter file.
+                deleteQuietly(previous);
+            }
+            return added;
+        }
+
+        private Path replace(Path temp) throws IOException {
+            try {
+                mover.move(temp, file);
+                return file;
+            } catch (FileSystemException e) {
+                // Windows refuses to replace a file that a live Range still maps. Overwriting it in place would
+                // shift that Range's records, so switch to the other name instead.
+                Path other = file.equals(primary) ? alternate : primary;
+                try {
+                    mover.move(temp, other);
+                    return other;
+                } catch (IOException again) {
+                    again.addSuppressed(e);
+                    Files.deleteIfExists(temp);
+                    throw again;
+                }
+            }
+        }
+
+        private static void deleteQuietly(Path path) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // Still mapped somewhere; it is the shorter file and loses on the next open.
+            }
+        }
+
+        private Range range(long fromInclusive, long toExclusive) {
+            MappedByteBuffer buffer = mapped();
+            int size = countOf(buffer);
+            if (size == 0 || fromInclusive >= toExclusive) {
+                return Range.EMPTY;
+            }
+            int first = lowerBound(buffer, size, fromInclusive);
+            int end = lowerBound(buffer, size, toExclusive);
+            return first >= end ? Range.EMPTY : new Range(buffer, HEADER_BYTES + first * RECORD_BYTES, end - first);
+        }
+
+        private static int indexOf(ByteBuffer buffer, long timestamp) {
+            int count = countOf(buffer);
+            int index = lowerBound(buffer, count, timestamp);
+            return index < count && timestampAt(buffer, index) == timestamp ? index : -1;
+        }
+
+        private static int lowerBound(ByteBuffer buffer, int size, long timestamp) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timestampAt(buffer, mid) < timestamp) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static long timestampAt(ByteBuffer buffer, int index) {
+            return buffer.getLong(HEADER_BYTES + index * RECORD_BYTES);
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+
+        private static ByteBuffer header() {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).putInt(0);
+            return header.flip();
+        }
+
+        private static ByteBuffer encode(List<Time.Series> points) {
+            ByteBuffer records = ByteBuffer.allocate(points.size() * RECORD_BYTES);
+            for (Time.Series point : points) {
+                putRecord(records, point);
+            }
+            return records.flip();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.harmony.flipper.store;
+
+import com.harmony.flipper.data.Price;
+import com.harmony.flipper.data.Response;
+import com.harmony.flipper.data.Snapshot;
+import com.harmony.flipper.data.Time;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Last known snapshot kept on disk in the {@link SnapshotFile} format, so a restarted script can act on the
+ * previous mapping and prices while fresh ones are fetched.
+ * <p>
+ * A missing, truncated or outdated file is not an error: {@link #load()} returns {@code null} and the next
+ * {@link #save(Snapshot)} replaces it. Prices older than {@code maxAge} are not loaded, so nothing trades on
+ * them; the mapping, which rarely changes, is still used.
+ */
+public final class WarmStart {
+
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(30);
+
+    private final Path file;
+    private final long maxAgeMillis;
+    private final Clock clock;
+
+    public WarmStart(Path file) {
+        this(file, DEFAULT_MAX_AGE, Clock.systemUTC());
+    }
+
+    /**
+     * @param maxAge how far the newest price in a saved snapshot may lie in the past for its prices to load
+     */
+    public WarmStart(Path file, Duration maxAge, Clock clock) {
+        this.file = Objects.requireNonNull(file, "file");
+        Duration age = Objects.requireNonNull(maxAge, "maxAge");
+        if (age.isNegative()) {
+            throw new IllegalArgumentException("maxAge must not be negative");
+        }
+        this.maxAgeMillis = age.toMillis();
+        this.clock = Objects.requireNonNull(clock, "clock");
+    }
+
+    /**
+     * {@code ~/inubot/harmonyflipper/warm-start.hfsn}, next to the directory the script jar is built into.
+     */
+    public static Path defaultFile() {
+        return Paths.get(System.getProperty("user.home"), "inubot", "harmonyflipper", "warm-start.hfsn");
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Previously saved snapshot without timeseries, or {@code null} when there is none that can be read.
+     * When its prices are too old only the mapping is returned, or {@code null} if it has none.
+     */
+    public Snapshot load() {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        Snapshot snapshot;
+        try {
+            snapshot = SnapshotFile.read(file).toSnapshot();
+        } catch (RuntimeException e) {
+            // Unreadable, truncated or from another format version: start cold.
+            return null;
+        }
+        if (clock.millis() - pricedAt(snapshot) * 1000L <= maxAgeMillis) {
+            return snapshot;
+        }
+        return snapshot.getMapping().isEmpty()
+                ? null
+                : Snapshot.of(null, null, null, null, snapshot.getMapping(), null);
+    }
+
+    /**
+     * Replaces the saved snapshot; the file is swapped in atomically, so a crash mid-write keeps the old one.
+     */
+    public void save(Snapshot snapshot) {
+        Objects.requireNonNull(snapshot, "snapshot");
+        Path parent = file.toAbsolutePath().getParent();
+        try {
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create " + parent, e);
+        }
+        SnapshotFile.write(snapshot, file);
+    }
+
+    /**
+     * Epoch second of the newest price in {@code snapshot}: its latest trade, or the close of its newest bucket.
+     */
+    static long pricedAt(Snapshot snapshot) {
+        long newest = 0L;
+        Response.Latest latest = snapshot.getLatest();
+        if (latest != null) {
+            for (Price.Latest price : latest.getData().values()) {
+                if (price != null) {
+                    newest = Math.max(newest, orZero(price.getHighTime()));
+                    newest = Math.max(newest, orZero(price.getLowTime()));
+                }
+            }
+        }
+        newest = Math.max(newest, closeOf(snapshot.getFiveMinute(), Time.Step.FIVE_MINUTES));
+        newest = Math.max(newest, closeOf(snapshot.getOneHour(), Time.Step.ONE_HOUR));
+        return newest;
+    }
+
+    private static long closeOf(Response.Aggregate aggregate, Time.Step step) {
+        return aggregate == null || aggregate.getTimestamp() <= 0L ? 0L : aggregate.getTimestamp() + step.getSeconds();
+    }
+
+    private static long orZero(Long value) {
+        return value == null ? 0L : value;
+    }
+}
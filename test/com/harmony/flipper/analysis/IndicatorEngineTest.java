@@ -0,0 +1,145 @@
+package com.harmony.flipper.analysis;
+
+import com.harmony.flipper.data.Table;
+import com.harmony.flipper.data.Time;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndicatorEngineTest {
+
+    private static final double TOLERANCE = 1e-9;
+    private static final int WINDOW = 5;
+
+    @Test
+    void windowedIndicatorsMatchANaiveComputationAcrossWraps() {
+        IndicatorEngine engine = new IndicatorEngine(WINDOW, 3, 2.0);
+        Random random = new Random(7);
+        List<double[]> buckets = new ArrayList<>();
+        double ema = Double.NaN;
+        double alpha = 2.0 / (3 + 1);
+
+        for (int i = 0; i < WINDOW * 4 + 2; i++) {
+            int high = 1_000 + random.nextInt(100);
+            int low = high - 1 - random.nextInt(20);
+            long highVolume = random.nextInt(50);
+            long lowVolume = random.nextInt(50);
+            assertTrue(engine.update(2, 300L * i, high, low, highVolume, lowVolume));
+
+            double price = (high + low) / 2.0;
+            ema = i == 0 ? price : ema + alpha * (price - ema);
+            buckets.add(new double[]{price, (double) high * highVolume + (double) low * lowVolume, highVolume + lowVolume});
+
+            List<double[]> window = buckets.subList(Math.max(0, buckets.size() - WINDOW), buckets.size());
+            assertEquals(window.size(), engine.getCount(2));
+            assertEquals(ema, engine.getEma(2), TOLERANCE);
+            assertEquals(mean(window, 0), engine.getMean(2), TOLERANCE);
+            assertEquals(stdDev(window), engine.getStdDev(2), TOLERANCE);
+            assertEquals(engine.getMean(2) + 2 * engine.getStdDev(2), engine.getUpperBand(2), TOLERANCE);
+            assertEquals(sum(window, 1) / sum(window, 2), engine.getVwap(2), TOLERANCE);
+            if (i == 0) {
+                assertTrue(Double.isNaN(engine.getVolatility(2)));
+            } else {
+                assertEquals(volatility(buckets), engine.getVolatility(2), TOLERANCE);
+            }
+        }
+        assertEquals(300L * (WINDOW * 4 + 1), engine.getLastTimestamp(2));
+    }
+
+    @Test
+    void oldOrPricelessBucketsAreIgnored() {
+        IndicatorEngine engine = new IndicatorEngine(WINDOW, 3, 2.0);
+        engine.update(2, new Time.Series(600, 100, 90, 1L, 1L));
+
+        assertFalse(engine.update(2, new Time.Series(600, 200, 190, 1L, 1L)));
+        assertFalse(engine.update(2, new Time.Series(300, 200, 190, 1L, 1L)));
+        assertFalse(engine.update(2, new Time.Series(900, null, null, 5L, 5L)));
+        assertTrue(engine.update(2, new Time.Series(900, null, 110, null, 4L)));
+
+        assertEquals(2, engine.getCount(2));
+        assertEquals(110, engine.getLastPrice(2), TOLERANCE);
+        assertEquals((95 + 110) / 2.0, engine.getMean(2), TOLERANCE);
+    }
+
+    @Test
+    void idsOutsideTheTableRangeAreSkipped() {
+        IndicatorEngine engine = new IndicatorEngine(WINDOW, 3, 2.0);
+
+        assertFalse(engine.update(Table.ID_LIMIT, 300, 100, 90, 1L, 1L));
+        assertFalse(engine.update(Integer.MAX_VALUE, 300, 100, 90, 1L, 1L));
+        assertFalse(engine.update(-1, 300, 100, 90, 1L, 1L));
+        assertTrue(engine.update(Table.ID_LIMIT - 1, 300, 100, 90, 1L, 1L));
+
+        assertFalse(engine.contains(Table.ID_LIMIT));
+        assertFalse(engine.contains(-1));
+        assertEquals(1, engine.getCount(Table.ID_LIMIT - 1));
+    }
+
+    @Test
+    void vwapIsUndefinedWithoutVolume() {
+        IndicatorEngine engine = new IndicatorEngine(WINDOW, 3, 2.0);
+        engine.update(2, 300, 100, 90, Table.MISSING, 0);
+
+        assertTrue(Double.isNaN(engine.getVwap(2)));
+        assertEquals(95, engine.getMean(2), TOLERANCE);
+    }
+
+    @Test
+    void manyItemsKeepSeparateRings() {
+        IndicatorEngine engine = new IndicatorEngine(WINDOW, 3, 2.0);
+        for (int round = 0; round < WINDOW * 2; round++) {
+            for (int id = 0; id < 600; id++) {
+                int price = id + round + 1;
+                engine.update(id, 300L * round, price, price, 1, 1);
+            }
+        }
+
+        for (int id = 0; id < 600; id++) {
+            assertEquals(WINDOW, engine.getCount(id));
+            double expected = id + 1 + (WINDOW + WINDOW * 2 - 1) / 2.0;
+            assertEquals(expected, engine.getMean(id), TOLERANCE);
+        }
+        assertFalse(engine.contains(600));
+        assertTrue(Double.isNaN(engine.getMean(600)));
+    }
+
+    private static double mean(List<double[]> window, int column) {
+        return sum(window, column) / window.size();
+    }
+
+    private static double sum(List<double[]> window, int column) {
+        double sum = 0;
+        for (double[] bucket : window) {
+            sum += bucket[column];
+        }
+        return sum;
+    }
+
+    private static double stdDev(List<double[]> window) {
+        double mean = mean(window, 0);
+        double sum = 0;
+        for (double[] bucket : window) {
+            sum += (bucket[0] - mean) * (bucket[0] - mean);
+        }
+        return Math.sqrt(sum / window.size());
+    }
+
+    private static double volatility(List<double[]> buckets) {
+        List<Double> returns = new ArrayList<>();
+        for (int i = Math.max(1, buckets.size() - WINDOW); i < buckets.size(); i++) {
+            returns.add(Math.log(buckets.get(i)[0] / buckets.get(i - 1)[0]));
+        }
+        double mean = returns.stream().mapToDouble(Double::doubleValue).average().orElse(Double.NaN);
+        double sum = 0;
+        for (double value : returns) {
+            sum += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(sum / returns.size());
+    }
+}
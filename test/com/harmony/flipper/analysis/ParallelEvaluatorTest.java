@@ -0,0 +1,101 @@
+package com.harmony.flipper.analysis;
+
+import com.harmony.flipper.scan.TopK;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelEvaluatorTest {
+
+    private static final double TOLERANCE = 1e-6;
+    private static final int ITEMS = 10_000;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final ParallelEvaluator evaluator = new ParallelEvaluator(pool, 16);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void reductionsMatchASequentialPass() {
+        int[] ids = new int[ITEMS];
+        double[] values = new double[ITEMS * 3];
+        Random random = new Random(11);
+        for (int i = 0; i < ITEMS; i++) {
+            ids[i] = i * 3;
+            // One item in ten is left out.
+            values[ids[i]] = random.nextInt(10) == 0 ? Double.NaN : random.nextDouble() * 1_000 - 100;
+        }
+        IntToDoubleFunction kernel = id -> values[id];
+
+        TopK top = new TopK(25);
+        Summary summary = new Summary();
+        Histogram histogram = new Histogram(0, 800, 16);
+        for (int id : ids) {
+            double value = values[id];
+            if (!Double.isNaN(value)) {
+                top.offer(id, value);
+                summary.accept(value);
+                histogram.accept(value);
+            }
+        }
+
+        assertArrayEquals(top.sortedIds(), evaluator.evaluate(ids, kernel, ParallelEvaluator.topK(25)).sortedIds());
+
+        Summary parallel = evaluator.evaluate(ids, kernel, ParallelEvaluator.summary());
+        assertEquals(summary.getCount(), parallel.getCount());
+        assertEquals(summary.getMin(), parallel.getMin());
+        assertEquals(summary.getMax(), parallel.getMax());
+        assertEquals(summary.getSum(), parallel.getSum(), TOLERANCE);
+        assertEquals(summary.getStandardDeviation(), parallel.getStandardDeviation(), TOLERANCE);
+
+        Histogram bins = evaluator.evaluate(ids, kernel, ParallelEvaluator.histogram(0, 800, 16));
+        assertEquals(histogram.getBelow(), bins.getBelow());
+        assertEquals(histogram.getAbove(), bins.getAbove());
+        for (int bin = 0; bin < histogram.bins(); bin++) {
+            assertEquals(histogram.getCount(bin), bins.getCount(bin));
+        }
+    }
+
+    @Test
+    void subRangeEvaluatesOnlyThoseIds() {
+        int[] ids = new int[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            ids[i] = i;
+        }
+
+        Summary summary = evaluator.evaluate(ids, 1_000, 3_000, id -> id, ParallelEvaluator.summary());
+
+        assertEquals(2_000, summary.getCount());
+        assertEquals(1_000, summary.getMin());
+        assertEquals(2_999, summary.getMax());
+    }
+
+    @Test
+    void kernelFailureReachesTheCaller() {
+        int[] ids = new int[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            ids[i] = i;
+        }
+        IntToDoubleFunction kernel = id -> {
+            if (id == 7_777) {
+                throw new IllegalStateException("bad item " + id);
+            }
+            return id;
+        };
+
+        assertThrows(IllegalStateException.class, () -> evaluator.evaluate(ids, kernel, ParallelEvaluator.summary()));
+        // A range small enough to run on the calling thread fails the same way.
+        assertThrows(IllegalStateException.class,
+                () -> evaluator.evaluate(ids, 7_770, 7_780, kernel, ParallelEvaluator.summary()));
+    }
+}
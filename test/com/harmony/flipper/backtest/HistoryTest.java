@@ -0,0 +1,66 @@
+package com.harmony.flipper.backtest;
+
+import com.harmony.flipper.data.Response;
+import com.harmony.flipper.data.Table;
+import com.harmony.flipper.data.Time;
+import com.harmony.flipper.store.TimeseriesStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HistoryTest {
+
+    private static final Time.Step STEP = Time.Step.FIVE_MINUTES;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void timeseriesAreGroupedByItemAndOutOfOrderPointsDropped() {
+        History history = History.ofTimeseries(List.of(
+                Response.Timeseries.of(4151, List.of(point(300, 1_500), point(600, 1_510), point(600, 1_520))),
+                Response.Timeseries.of(2, List.of(point(900, 160), point(600, 150)))), Table.Limit.of(null));
+
+        assertEquals(2, history.itemCount());
+        assertEquals(2, history.itemIdAt(0));
+        assertEquals(4151, history.itemIdAt(1));
+        assertEquals(1, history.end(0) - history.start(0));
+        assertEquals(2, history.end(1) - history.start(1));
+        assertEquals(1_510, history.getAvgHighPrice(history.end(1) - 1));
+        assertEquals(Table.MISSING, history.limitAt(0));
+    }
+
+    @Test
+    void idsTableWouldNotIndexAreSkipped() {
+        History history = History.ofTimeseries(List.of(
+                Response.Timeseries.of(Integer.MAX_VALUE, List.of(point(300, 1))),
+                Response.Timeseries.of(Table.ID_LIMIT, List.of(point(300, 1))),
+                Response.Timeseries.of(-1, List.of(point(300, 1))),
+                Response.Timeseries.of(2, List.of(point(300, 160)))), Table.Limit.of(null));
+
+        assertEquals(1, history.itemCount());
+        assertEquals(2, history.itemIdAt(0));
+        assertEquals(1, history.rowCount());
+    }
+
+    @Test
+    void storeReadSkipsIdsTableWouldNotIndex() {
+        try (TimeseriesStore store = new TimeseriesStore(directory)) {
+            store.merge(2, STEP, List.of(point(300, 160), point(600, 161)));
+
+            History history = History.ofStore(store, STEP, new int[]{Integer.MAX_VALUE, 2, -1, 2},
+                    0, 900, Table.Limit.of(null));
+
+            assertEquals(1, history.itemCount());
+            assertEquals(2, history.rowCount());
+        }
+    }
+
+    private static Time.Series point(long timestamp, int price) {
+        return new Time.Series(timestamp, price, price - 5, 10L, 10L);
+    }
+}
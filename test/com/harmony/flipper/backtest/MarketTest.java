@@ -0,0 +1,145 @@
+package com.harmony.flipper.backtest;
+
+import com.harmony.flipper.data.Table;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MarketTest {
+
+    private static final long STEP = 300;
+
+    @Test
+    void buyFillsAtTheOfferPriceOnceTheLowCrossesIt() {
+        Market market = new Market(2, Table.MISSING, 1.0);
+        market.buy(100, 10);
+
+        market.advance(0, 110, 101, 50, 50);
+        assertEquals(0, market.getInventory(), "low above the offer does not fill");
+
+        market.advance(STEP, 105, 95, 50, 50);
+        assertEquals(10, market.getInventory());
+        assertEquals(0, market.getBuyQuantity());
+        assertEquals(1_000, market.getCostBasis());
+    }
+
+    @Test
+    void sellFillsOnlyHeldUnitsAndPaysTax() {
+        Market market = new Market(2, Table.MISSING, 1.0);
+        market.buy(100, 10);
+        market.advance(0, 105, 95, 50, 50);
+        market.sell(1_000, 20);
+
+        market.advance(STEP, 999, 95, 50, 50);
+        assertEquals(10, market.getInventory(), "high below the offer does not fill");
+
+        market.advance(2 * STEP, 1_100, 95, 50, 50);
+        assertEquals(0, market.getInventory());
+        assertEquals(10, market.getSold());
+        assertEquals(10, market.getSellQuantity());
+        assertEquals(10 * 20, market.getTaxPaid());
+        assertEquals(10 * 1_000 - 10 * 20 - 1_000, market.getRealizedProfit());
+    }
+
+    @Test
+    void fillsAreCappedByParticipation() {
+        Market market = new Market(2, Table.MISSING, 0.1);
+        market.buy(100, 1_000);
+
+        market.advance(0, 105, 95, 500, 250);
+
+        assertEquals(25, market.getInventory());
+        assertEquals(975, market.getBuyQuantity());
+    }
+
+    @Test
+    void fractionalSharesCarryOverWhileTheOfferStands() {
+        Market market = new Market(2, Table.MISSING, 0.1);
+        market.buy(100, 100);
+
+        for (int i = 0; i < 3; i++) {
+            market.advance(i * STEP, 105, 95, 3, 3);
+            market.buy(100, market.getBuyQuantity());
+        }
+        assertEquals(0, market.getInventory());
+
+        market.advance(3 * STEP, 105, 95, 3, 3);
+        assertEquals(1, market.getInventory(), "four buckets of 0.3 add up to one unit");
+    }
+
+    @Test
+    void repricingDropsTheCarriedShare() {
+        Market market = new Market(2, Table.MISSING, 0.1);
+        market.buy(100, 100);
+        for (int i = 0; i < 3; i++) {
+            market.advance(i * STEP, 105, 95, 3, 3);
+        }
+
+        market.buy(101, 100);
+        market.advance(3 * STEP, 105, 95, 3, 3);
+
+        assertEquals(0, market.getInventory());
+    }
+
+    @Test
+    void cancellingDropsTheCarriedShare() {
+        Market market = new Market(2, Table.MISSING, 0.1);
+        market.buy(100, 100);
+        for (int i = 0; i < 3; i++) {
+            market.advance(i * STEP, 105, 95, 3, 3);
+        }
+
+        market.cancelBuy();
+        market.buy(100, 100);
+        market.advance(3 * STEP, 105, 95, 3, 3);
+
+        assertEquals(0, market.getInventory());
+    }
+
+    @Test
+    void wholeUnitsABucketCouldNotUseExpire() {
+        Market market = new Market(2, Table.MISSING, 1.0);
+        market.buy(100, 1);
+        market.advance(0, 105, 95, 50, 50);
+        market.buy(100, 10);
+
+        market.advance(STEP, 105, 95, 50, 3);
+
+        assertEquals(1 + 3, market.getInventory());
+    }
+
+    @Test
+    void buyLimitHoldsForFourHours() {
+        Market market = new Market(2, 8, 1.0);
+        market.buy(100, 20);
+
+        market.advance(0, 105, 95, 50, 50);
+        assertEquals(8, market.getInventory());
+        assertEquals(0, market.getRemainingLimit());
+
+        market.advance(Market.LIMIT_WINDOW_SECONDS - STEP, 105, 95, 50, 50);
+        assertEquals(8, market.getInventory());
+
+        market.advance(Market.LIMIT_WINDOW_SECONDS, 105, 95, 50, 50);
+        assertEquals(16, market.getInventory());
+        assertEquals(4, market.getBuyQuantity());
+    }
+
+    @Test
+    void unrealizedProfitUsesTheLastHighAfterTax() {
+        Market market = new Market(2, Table.MISSING, 1.0);
+        market.buy(100, 10);
+        market.advance(0, 200, 95, 50, 50);
+
+        assertEquals(10 * (200 - 4) - 1_000, market.unrealizedProfit());
+    }
+
+    @Test
+    void rejectsInvalidOffers() {
+        Market market = new Market(2, Table.MISSING, 1.0);
+
+        assertThrows(IllegalArgumentException.class, () -> market.buy(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> market.sell(100, -1));
+    }
+}
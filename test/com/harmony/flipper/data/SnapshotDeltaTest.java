@@ -0,0 +1,138 @@
+package com.harmony.flipper.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotDeltaTest {
+
+    @Test
+    void reportsAddedRemovedAndChangedItems() {
+        Snapshot previous = snapshot(Map.of(
+                2, new Price.Latest(160, 10L, 150, 10L),
+                561, new Price.Latest(230, 10L, 200, 10L),
+                4151, new Price.Latest(1_560_000, 10L, 1_500_000, 10L)), null);
+        Snapshot next = snapshot(Map.of(
+                2, new Price.Latest(160, 10L, 151, 20L),
+                561, new Price.Latest(230, 20L, 200, 10L),
+                11_832, new Price.Latest(30_000_000, 20L, 29_000_000, 20L)), null);
+
+        SnapshotDelta delta = SnapshotDelta.between(previous, next);
+
+        assertArrayEquals(new int[]{2, 561, 4151, 11_832}, delta.getIds());
+        assertEquals(SnapshotDelta.LOW, delta.flagsAt(0));
+        assertEquals(SnapshotDelta.HIGH, delta.flagsAt(1), "a new trade at the same price still counts");
+        assertEquals(SnapshotDelta.REMOVED, delta.flagsAt(2));
+        assertEquals(SnapshotDelta.ADDED | SnapshotDelta.HIGH | SnapshotDelta.LOW, delta.flagsAt(3));
+    }
+
+    @Test
+    void unchangedSnapshotGivesAnEmptyDelta() {
+        Map<Integer, Price.Latest> prices = Map.of(2, new Price.Latest(160, 10L, 150, 10L));
+        Map<Integer, Long> volumes = Map.of(2, 12_000L);
+
+        SnapshotDelta delta = SnapshotDelta.between(snapshot(prices, volumes), snapshot(prices, volumes));
+
+        assertTrue(delta.isEmpty());
+        assertEquals(0, delta.size());
+        assertTrue(SnapshotDelta.between(snapshot(Map.of(), null), snapshot(Map.of(), null)).isEmpty());
+    }
+
+    @Test
+    void volumeChangesAreReportedWhenBothSnapshotsHaveVolumes() {
+        Map<Integer, Price.Latest> prices = Map.of(2, new Price.Latest(160, 10L, 150, 10L));
+        Snapshot previous = snapshot(prices, Map.of(2, 12_000L, 561, 5L));
+        Snapshot next = snapshot(prices, Map.of(2, 12_500L, 4151, 70L));
+
+        SnapshotDelta delta = SnapshotDelta.between(previous, next);
+
+        assertArrayEquals(new int[]{2, 561, 4151}, delta.getIds());
+        for (int i = 0; i < delta.size(); i++) {
+            assertEquals(SnapshotDelta.VOLUME, delta.flagsAt(i));
+        }
+        assertTrue(SnapshotDelta.between(previous, next.getLatest()).isEmpty(), "volumes are ignored without both tables");
+    }
+
+    @Test
+    void matchesADirectDiffOfTwoSnapshots() {
+        Random random = new Random(11);
+        Map<Integer, Price.Latest> previous = randomPrices(random, new HashMap<>());
+        for (int round = 0; round < 20; round++) {
+            Map<Integer, Price.Latest> next = randomPrices(random, previous);
+
+            SnapshotDelta delta = SnapshotDelta.between(snapshot(previous, null), snapshot(next, null));
+
+            Map<Integer, Integer> expected = diff(previous, next);
+            Map<Integer, Integer> actual = new TreeMap<>();
+            for (int i = 0; i < delta.size(); i++) {
+                actual.put(delta.idAt(i), delta.flagsAt(i));
+            }
+            assertEquals(expected, actual);
+            previous = next;
+        }
+    }
+
+    @Test
+    void emptyDeltaIsShared() {
+        Snapshot empty = snapshot(Map.of(), null);
+
+        assertSame(SnapshotDelta.between(empty, empty), SnapshotDelta.between(empty, empty));
+    }
+
+    private static Map<Integer, Integer> diff(Map<Integer, Price.Latest> previous, Map<Integer, Price.Latest> next) {
+        Map<Integer, Integer> flags = new TreeMap<>();
+        next.forEach((id, price) -> {
+            Price.Latest old = previous.get(id);
+            int mask;
+            if (old == null) {
+                mask = SnapshotDelta.ADDED | SnapshotDelta.HIGH | SnapshotDelta.LOW;
+            } else {
+                mask = 0;
+                if (!Objects.equals(old.getHigh(), price.getHigh()) || !Objects.equals(old.getHighTime(), price.getHighTime())) {
+                    mask |= SnapshotDelta.HIGH;
+                }
+                if (!Objects.equals(old.getLow(), price.getLow()) || !Objects.equals(old.getLowTime(), price.getLowTime())) {
+                    mask |= SnapshotDelta.LOW;
+                }
+            }
+            if (mask != 0) {
+                flags.put(id, mask);
+            }
+        });
+        previous.keySet().stream().filter(id -> !next.containsKey(id)).forEach(id -> flags.put(id, SnapshotDelta.REMOVED));
+        return flags;
+    }
+
+    private static Map<Integer, Price.Latest> randomPrices(Random random, Map<Integer, Price.Latest> base) {
+        Map<Integer, Price.Latest> next = new HashMap<>(base);
+        for (int change = 0; change < 40; change++) {
+            int id = random.nextInt(300);
+            switch (random.nextInt(4)) {
+                case 0:
+                    next.remove(id);
+                    break;
+                case 1:
+                    next.put(id, new Price.Latest(null, null, 100 + random.nextInt(5), (long) random.nextInt(3)));
+                    break;
+                default:
+                    next.put(id, new Price.Latest(100 + random.nextInt(5), (long) random.nextInt(3),
+                            100 + random.nextInt(5), (long) random.nextInt(3)));
+            }
+        }
+        return next;
+    }
+
+    private static Snapshot snapshot(Map<Integer, Price.Latest> prices, Map<Integer, Long> volumes) {
+        return new Snapshot(Response.Latest.of(new HashMap<>(prices)), null, null,
+                volumes == null ? null : Response.Volume.of(1_700_000_000L, new HashMap<>(volumes)), null, null);
+    }
+}
@@ -0,0 +1,173 @@
+package com.harmony.flipper.net;
+
+import com.harmony.flipper.data.MappingIndex;
+import com.harmony.flipper.data.Price;
+import com.harmony.flipper.data.Response;
+import com.harmony.flipper.data.Snapshot;
+import com.harmony.flipper.net.transport.RetryPolicy;
+import com.harmony.flipper.testkit.MockWikiServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OsrsWikiCacheTest {
+
+    private static final String LATEST = "{\"data\":{\"2\":{\"high\":160,\"highTime\":1700000000,\"low\":150,\"lowTime\":1700000010}}}";
+    private static final String MAPPING = "[{\"id\":2,\"name\":\"Cannonball\",\"members\":false,\"limit\":11000}]";
+    private static final long TTL_MILLIS = 60_000L;
+    private static final long MAPPING_TTL_MILLIS = Duration.ofDays(1).toMillis();
+
+    private MockWikiServer api;
+    private MutableClock clock;
+    private OsrsWikiCache cache;
+
+    @BeforeEach
+    void setUp() {
+        api = new MockWikiServer().body("latest", LATEST).body("mapping", MAPPING).start();
+        clock = new MutableClock();
+        cache = new OsrsWikiCache(new OsrsWikiClient(api.transport(RetryPolicy.none())), clock, Duration.ofMillis(TTL_MILLIS));
+    }
+
+    @AfterEach
+    void tearDown() {
+        api.close();
+    }
+
+    @Test
+    void freshValueIsServedWithoutARequest() {
+        Response.Latest first = cache.getLatest();
+        clock.advance(TTL_MILLIS - 1);
+
+        assertSame(first, cache.getLatest());
+        assertEquals(1, api.getRequests("latest"));
+    }
+
+    @Test
+    void staleValueIsServedWhileOneRefreshRuns() {
+        Response.Latest first = cache.getLatest();
+        api.body("latest", LATEST.replace("160", "170"));
+        clock.advance(TTL_MILLIS);
+
+        assertSame(first, cache.getLatest());
+        assertSame(first, cache.getLatest());
+        awaitTrue(() -> cache.getLatest() != first);
+        assertEquals(170, cache.getLatest().getData().get(2).getHigh());
+        assertEquals(2, api.getRequests("latest"));
+    }
+
+    @Test
+    void valuePastTheStaleWindowWaitsForTheRefresh() {
+        cache.getLatest();
+        api.body("latest", LATEST.replace("160", "170"));
+        clock.advance(2 * TTL_MILLIS);
+
+        assertEquals(170, cache.getLatest().getData().get(2).getHigh());
+        assertEquals(2, api.getRequests("latest"));
+    }
+
+    @Test
+    void seededValueIsServedAtOnceAndRevalidated() {
+        Response.Latest seeded = Response.Latest.of(Map.of(2, new Price.Latest(100, 1L, 90, 1L)));
+        cache.seed(Snapshot.of(seeded, null, null, null, null, null));
+
+        assertSame(seeded, cache.getLatest());
+        awaitTrue(() -> cache.getLatest() != seeded);
+        assertEquals(160, cache.getLatest().getData().get(2).getHigh());
+    }
+
+    @Test
+    void refreshRequestsEvenWhenFreshAndStoresTheAnswer() {
+        cache.getLatest();
+        api.body("latest", LATEST.replace("160", "170"));
+
+        Response.Latest refreshed = cache.refreshLatest().join();
+
+        assertEquals(170, refreshed.getData().get(2).getHigh());
+        assertSame(refreshed, cache.getLatest());
+        assertEquals(2, api.getRequests("latest"));
+    }
+
+    @Test
+    void mappingIndexSurvivesANotModifiedRefresh() {
+        MappingIndex index = cache.getMappingIndex();
+        clock.advance(2 * MAPPING_TTL_MILLIS);
+
+        assertSame(index, cache.getMappingIndex());
+        assertEquals(1, api.getConditionalRequests("mapping"));
+        assertEquals(0, api.getConditionalRequests("latest"));
+        assertEquals(2, api.getRequests("mapping"));
+    }
+
+    @Test
+    void mappingIndexIsRebuiltWhenTheMappingChanges() {
+        MappingIndex index = cache.getMappingIndex();
+        api.body("mapping", MAPPING.replace("Cannonball", "Steel cannonball"));
+        clock.advance(2 * MAPPING_TTL_MILLIS);
+
+        MappingIndex rebuilt = cache.getMappingIndex();
+
+        assertNotSame(index, rebuilt);
+        assertEquals(2, rebuilt.byName("Steel cannonball").getId());
+    }
+
+    @Test
+    void snapshotsShareTheCachedMappingIndex() {
+        String aggregate = "{\"timestamp\":1700000000,\"data\":{\"2\":{\"avgHighPrice\":158,\"highPriceVolume\":3}}}";
+        api.body("5m", aggregate).body("1h", aggregate).body("volumes", "{\"timestamp\":1700000000,\"data\":{\"2\":12000}}");
+
+        Snapshot first = cache.getSnapshot(null, null);
+        Snapshot second = cache.getSnapshot(null, null);
+
+        assertSame(cache.getMappingIndex(), first.getMappingIndex());
+        assertSame(first.getMappingIndex(), second.getMappingIndex());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5 s");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile long millis = 1_700_000_000_000L;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
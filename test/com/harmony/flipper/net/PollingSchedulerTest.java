@@ -0,0 +1,159 @@
+package com.harmony.flipper.net;
+
+import com.harmony.flipper.data.Price;
+import com.harmony.flipper.data.Response;
+import com.harmony.flipper.data.Snapshot;
+import com.harmony.flipper.net.transport.RetryPolicy;
+import com.harmony.flipper.testkit.MockWikiServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PollingSchedulerTest {
+
+    private static final long BUCKET_MILLIS = 300_000L;
+    private static final long POLLED_TIMESTAMP = 1_700_000_000L;
+    private static final long SEEDED_TIMESTAMP = POLLED_TIMESTAMP - 300L;
+    private static final String LATEST = "{\"data\":{\"2\":{\"high\":160,\"highTime\":1700000000,\"low\":150,\"lowTime\":1700000010}}}";
+    private static final String AGGREGATE = "{\"timestamp\":" + POLLED_TIMESTAMP + ",\"data\":{\"2\":{\"avgHighPrice\":158,\"highPriceVolume\":3}}}";
+    private static final String VOLUMES = "{\"timestamp\":1700000000,\"data\":{\"2\":12000}}";
+    private static final String MAPPING = "[{\"id\":2,\"name\":\"Cannonball\",\"members\":false,\"limit\":11000}]";
+    // Shortly after the polled buckets closed, so the next aggregate polls are minutes away and /latest an hour.
+    private static final Clock CLOCK = Clock.fixed(Instant.ofEpochMilli(POLLED_TIMESTAMP * 1000L + 100_000L), ZoneOffset.UTC);
+
+    private MockWikiServer api;
+    private OsrsWikiCache cache;
+    private PollingScheduler scheduler;
+    private final List<Snapshot> published = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        api = new MockWikiServer().body("latest", LATEST).body("5m", AGGREGATE).body("1h", AGGREGATE)
+                .body("volumes", VOLUMES).body("mapping", MAPPING).start();
+        cache = new OsrsWikiCache(new OsrsWikiClient(api.transport(RetryPolicy.none())), CLOCK, Duration.ofMinutes(1));
+        scheduler = new PollingScheduler(cache, CLOCK, Duration.ofHours(1), Duration.ZERO);
+        scheduler.subscribe(published::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.close();
+        api.close();
+    }
+
+    @Test
+    void nextBucketWaitsForTheFollowingBucketToBePublished() {
+        Response.Aggregate aggregate = Response.Aggregate.of(POLLED_TIMESTAMP, Map.of());
+        long fetchedAt = POLLED_TIMESTAMP * 1000L + 100_000L;
+
+        // The bucket starting at the timestamp closed; the next closes a bucket later and is published 5 s after.
+        assertEquals(POLLED_TIMESTAMP * 1000L + 2 * BUCKET_MILLIS + 5_000L,
+                OsrsWikiCache.nextBucket(aggregate, fetchedAt, BUCKET_MILLIS));
+    }
+
+    @Test
+    void nextBucketNeverRetriesSoonerThanTheFloor() {
+        Response.Aggregate aggregate = Response.Aggregate.of(POLLED_TIMESTAMP, Map.of());
+        long fetchedAt = POLLED_TIMESTAMP * 1000L + 3 * BUCKET_MILLIS;
+
+        assertEquals(fetchedAt + 15_000L, OsrsWikiCache.nextBucket(aggregate, fetchedAt, BUCKET_MILLIS));
+    }
+
+    @Test
+    void nextBucketWithoutATimestampWaitsOneBucket() {
+        Response.Aggregate aggregate = Response.Aggregate.of(0L, Map.of());
+
+        assertEquals(1_000L + BUCKET_MILLIS, OsrsWikiCache.nextBucket(aggregate, 1_000L, BUCKET_MILLIS));
+    }
+
+    @Test
+    void pollsLandingWhileAPublishWaitsAreFoldedIntoIt() throws InterruptedException {
+        api.hold("volumes");
+        scheduler.seed(seeded());
+        awaitTrue(() -> api.getRequests("volumes") == 1);
+
+        scheduler.start();
+        awaitPolls();
+        api.release("volumes");
+        awaitTrue(() -> !published.isEmpty());
+        drain();
+
+        assertEquals(1, published.size());
+        assertPolled(published.get(0));
+    }
+
+    @Test
+    void pollsReplaceTheSeedAndALaterSeedKeepsThem() throws InterruptedException {
+        scheduler.seed(seeded());
+        awaitTrue(() -> !published.isEmpty());
+        assertEquals(100, published.get(0).getLatest().getData().get(2).getHigh());
+
+        scheduler.start();
+        awaitPolls();
+        drain();
+        assertPolled(scheduler.getSnapshot());
+
+        scheduler.seed(seeded());
+        drain();
+        assertPolled(scheduler.getSnapshot());
+        assertPolled(published.get(published.size() - 1));
+    }
+
+    private static Snapshot seeded() {
+        Response.Latest latest = Response.Latest.of(Map.of(2, new Price.Latest(100, 1L, 90, 1L)));
+        Response.Aggregate aggregate = Response.Aggregate.of(SEEDED_TIMESTAMP, Map.of());
+        return Snapshot.of(latest, aggregate, aggregate, null, null, null);
+    }
+
+    private static void assertPolled(Snapshot snapshot) {
+        assertEquals(160, snapshot.getLatest().getData().get(2).getHigh());
+        assertEquals(POLLED_TIMESTAMP, snapshot.getFiveMinute().getTimestamp());
+        assertEquals(POLLED_TIMESTAMP, snapshot.getOneHour().getTimestamp());
+    }
+
+    /**
+     * Waits until the first poll of every price endpoint has been answered and handed to the scheduler.
+     */
+    private void awaitPolls() {
+        awaitTrue(() -> api.getRequests("latest") == 1 && api.getRequests("5m") == 1 && api.getRequests("1h") == 1);
+        // The cache shares the in-flight refreshes, so these complete with the polls and send nothing.
+        cache.getLatestAsync().join();
+        cache.getFiveMinutePricesAsync().join();
+        cache.getOneHourPricesAsync().join();
+    }
+
+    /**
+     * Returns once every task queued on the scheduler thread so far has run, and then any publish those tasks
+     * queued; each subscription is delivered in queue order behind them.
+     */
+    private void drain() throws InterruptedException {
+        for (int i = 0; i < 2; i++) {
+            CountDownLatch reached = new CountDownLatch(1);
+            Runnable unsubscribe = scheduler.subscribe(snapshot -> reached.countDown());
+            assertTrue(reached.await(5, TimeUnit.SECONDS), "scheduler thread did not drain within 5 s");
+            unsubscribe.run();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5 s");
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.harmony.flipper.net;
+
+import com.harmony.flipper.data.Price;
+import com.harmony.flipper.data.Response;
+import com.harmony.flipper.data.SnapshotDelta;
+import com.harmony.flipper.data.Table;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceFeedTest {
+
+    private final PriceFeed feed = new PriceFeed(Runnable::run, 16);
+
+    @Test
+    void deliversOnlyWhatWasRequested() {
+        Recorder recorder = subscribe(0);
+        feed.publish(latest(Map.of(2, 100, 561, 200, 4151, 300)));
+
+        assertTrue(recorder.updates.isEmpty());
+        recorder.subscription.request(2);
+        assertEquals(List.of(2, 561), recorder.ids());
+        recorder.subscription.request(1);
+        assertEquals(List.of(2, 561, 4151), recorder.ids());
+        assertTrue(recorder.updates.get(0).has(SnapshotDelta.ADDED));
+    }
+
+    @Test
+    void onlyChangedItemsArePublished() {
+        Recorder recorder = subscribe(Long.MAX_VALUE);
+        feed.publish(latest(Map.of(2, 100, 561, 200)));
+
+        assertEquals(1, feed.publish(latest(Map.of(2, 100, 561, 210))));
+
+        assertEquals(List.of(2, 561, 561), recorder.ids());
+        PriceFeed.Update changed = recorder.updates.get(2);
+        assertEquals(210, changed.getLow());
+        assertTrue(changed.has(SnapshotDelta.LOW));
+        assertFalse(changed.has(SnapshotDelta.ADDED));
+    }
+
+    @Test
+    void sameResponseInstanceIsNotDiffedAgain() {
+        Recorder recorder = subscribe(Long.MAX_VALUE);
+        Response.Latest latest = latest(Map.of(2, 100));
+
+        assertEquals(1, feed.publish(latest));
+        assertEquals(0, feed.publish(latest));
+        assertEquals(0, feed.publish(latest(Map.of(2, 100))));
+        assertEquals(List.of(2), recorder.ids());
+    }
+
+    @Test
+    void pendingUpdatesForOneItemAreConflated() {
+        Recorder recorder = subscribe(0);
+        feed.publish(latest(Map.of(2, 100)));
+        feed.publish(latest(Map.of(2, 110)));
+        feed.publish(latest(Map.of(2, 120)));
+
+        recorder.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(List.of(2), recorder.ids());
+        PriceFeed.Update update = recorder.updates.get(0);
+        assertEquals(120, update.getLow());
+        assertTrue(update.has(SnapshotDelta.ADDED));
+        assertTrue(update.has(SnapshotDelta.LOW));
+    }
+
+    @Test
+    void removedAndReAddedBeforeDeliveryIsAChange() {
+        Recorder recorder = subscribe(0);
+        feed.publish(latest(Map.of(2, 100, 561, 200)));
+        recorder.subscription.request(2);
+        feed.publish(latest(Map.of(561, 200)));
+        feed.publish(latest(Map.of(2, 105, 561, 200)));
+
+        recorder.subscription.request(1);
+
+        PriceFeed.Update update = recorder.updates.get(2);
+        assertEquals(2, update.getItemId());
+        assertFalse(update.has(SnapshotDelta.REMOVED));
+        assertFalse(update.has(SnapshotDelta.ADDED));
+        assertEquals(105, update.getLow());
+    }
+
+    @Test
+    void fullBufferDropsTheEldestItems() {
+        PriceFeed small = new PriceFeed(Runnable::run, 2);
+        Recorder recorder = new Recorder(0);
+        small.subscribe(recorder);
+
+        small.publish(latest(Map.of(2, 100)));
+        small.publish(latest(Map.of(2, 100, 561, 200)));
+        small.publish(latest(Map.of(2, 100, 561, 200, 4151, 300)));
+        recorder.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(List.of(561, 4151), recorder.ids());
+        assertEquals(1, small.getDroppedCount());
+    }
+
+    @Test
+    void itemFilterIsAppliedBeforeBuffering() {
+        Recorder recorder = new Recorder(Long.MAX_VALUE);
+        feed.subscribe(recorder, id -> id == 561);
+
+        feed.publish(latest(Map.of(2, 100, 561, 200)));
+
+        assertEquals(List.of(561), recorder.ids());
+    }
+
+    @Test
+    void nonPositiveRequestSignalsAnError() {
+        Recorder recorder = subscribe(0);
+        feed.publish(latest(Map.of(2, 100)));
+
+        recorder.subscription.request(0);
+
+        assertInstanceOf(IllegalArgumentException.class, recorder.error);
+        assertTrue(recorder.updates.isEmpty());
+        assertEquals(0, feed.getSubscriberCount());
+    }
+
+    @Test
+    void cancellingFromOnNextStopsTheDrain() {
+        Recorder recorder = new Recorder(Long.MAX_VALUE) {
+            @Override
+            public void onNext(PriceFeed.Update item) {
+                super.onNext(item);
+                subscription.cancel();
+            }
+        };
+        feed.subscribe(recorder);
+
+        feed.publish(latest(Map.of(2, 100, 561, 200, 4151, 300)));
+        feed.publish(latest(Map.of(2, 101)));
+
+        assertEquals(List.of(2), recorder.ids());
+        assertEquals(0, feed.getSubscriberCount());
+        assertFalse(recorder.completed);
+        assertNull(recorder.error);
+    }
+
+    @Test
+    void closeCompletesAfterTheBufferDrains() {
+        Recorder recorder = subscribe(0);
+        feed.publish(latest(Map.of(2, 100, 561, 200)));
+
+        feed.close();
+        assertFalse(recorder.completed, "buffered updates are still owed");
+        recorder.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(List.of(2, 561), recorder.ids());
+        assertTrue(recorder.completed);
+        assertThrows(IllegalStateException.class, () -> feed.publish(latest(Map.of(2, 1))));
+    }
+
+    @Test
+    void subscribingAfterCloseCompletesAtOnce() {
+        feed.close();
+
+        Recorder recorder = subscribe(0);
+
+        assertTrue(recorder.completed);
+        assertEquals(0, feed.getSubscriberCount());
+    }
+
+    private Recorder subscribe(long initialRequest) {
+        Recorder recorder = new Recorder(initialRequest);
+        feed.subscribe(recorder);
+        return recorder;
+    }
+
+    private static Response.Latest latest(Map<Integer, Integer> lows) {
+        Map<Integer, Price.Latest> data = new HashMap<>();
+        lows.forEach((id, low) -> data.put(id, new Price.Latest(low + 10, 1L, low, 1L)));
+        return Response.Latest.of(data);
+    }
+
+    private static class Recorder implements Flow.Subscriber<PriceFeed.Update> {
+        final List<PriceFeed.Update> updates = new ArrayList<>();
+        final long initialRequest;
+        Flow.Subscription subscription;
+        Throwable error;
+        boolean completed;
+
+        Recorder(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        List<Integer> ids() {
+            return updates.stream().map(PriceFeed.Update::getItemId).collect(Collectors.toList());
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(PriceFeed.Update item) {
+            updates.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.harmony.flipper.net.transport;
+
+import com.harmony.flipper.net.OsrsWikiClientException;
+import com.harmony.flipper.net.transport.OsrsWikiTransport.RawLatestResponse;
+import com.harmony.flipper.net.transport.OsrsWikiTransport.RawTimeseriesResponse;
+import com.harmony.flipper.testkit.MockWikiServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OsrsWikiTransportTest {
+
+    private static final String LATEST = "{\"data\":{\"2\":{\"high\":160,\"highTime\":1700000000,\"low\":150,\"lowTime\":1700000010}}}";
+    private static final String TIMESERIES = "{\"itemId\":2,\"data\":[{\"timestamp\":1700000000,\"avgHighPrice\":160}]}";
+
+    private MockWikiServer api;
+    private OsrsWikiTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        api = new MockWikiServer().body("latest", LATEST).body("timeseries", TIMESERIES).start();
+        transport = api.transport(RetryPolicy.none());
+    }
+
+    @AfterEach
+    void tearDown() {
+        api.close();
+    }
+
+    @Test
+    void unchangedBodyIsServedFromTheFirstDecode() {
+        RawLatestResponse first = transport.fetchLatest();
+        RawLatestResponse second = transport.fetchLatest();
+
+        assertSame(first, second);
+        assertEquals(1, api.getConditionalRequests("latest"));
+        assertEquals(1, transport.getConditionalHits());
+        assertEquals(1, transport.getConditionalMisses());
+        assertEquals(160, second.data.get(2).getHigh());
+    }
+
+    @Test
+    void changedBodyIsDecodedAgain() {
+        RawLatestResponse first = transport.fetchLatest();
+        api.body("latest", LATEST.replace("160", "170"));
+
+        RawLatestResponse second = transport.fetchLatest();
+
+        assertNotSame(first, second);
+        assertEquals(170, second.data.get(2).getHigh());
+        assertEquals(0, transport.getConditionalHits());
+    }
+
+    @Test
+    void asyncRequestsShareTheValidators() {
+        RawLatestResponse first = transport.fetchLatestAsync().join();
+
+        assertSame(first, transport.fetchLatestAsync().join());
+        assertEquals(1, transport.getConditionalHits());
+    }
+
+    @Test
+    void timeseriesAreNotRememberedForRevalidation() {
+        Map<String, String> params = Map.of("id", "2", "timestep", "5m");
+        RawTimeseriesResponse first = transport.fetchTimeseries(params);
+        RawTimeseriesResponse second = transport.fetchTimeseries(params);
+
+        assertNotSame(first, second);
+        assertEquals(0, api.getConditionalRequests("timeseries"));
+        assertEquals(2, api.getRequests("timeseries"));
+        assertEquals(0, transport.getConditionalHits());
+    }
+
+    @Test
+    void throttledRequestIsRetriedAfterRetryAfter() {
+        OsrsWikiTransport retrying = api.transport(new RetryPolicy(3, Duration.ofMillis(10), Duration.ofSeconds(1)));
+        api.failNext(429, 0);
+
+        assertEquals(160, retrying.fetchLatest().data.get(2).getHigh());
+        assertEquals(1, retrying.getRetries());
+        assertEquals(1, retrying.getThrottledResponses());
+        assertEquals(2, api.getRequests("latest"));
+    }
+
+    @Test
+    void asyncRequestIsRetriedAfterServerFailure() {
+        OsrsWikiTransport retrying = api.transport(new RetryPolicy(3, Duration.ofMillis(10), Duration.ofSeconds(1)));
+        api.failNext(503, -1);
+
+        assertEquals(160, retrying.fetchLatestAsync().join().data.get(2).getHigh());
+        assertEquals(1, retrying.getRetries());
+        assertEquals(0, retrying.getThrottledResponses());
+    }
+
+    @Test
+    void failureIsReportedOnceAttemptsRunOut() {
+        api.failNext(503, -1);
+
+        assertThrows(OsrsWikiClientException.class, transport::fetchLatest);
+        assertEquals(0, transport.getRetries());
+        assertEquals(1, api.getRequests("latest"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.harmony.flipper.net.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    @Test
+    void burstIsServedWithoutWaiting() {
+        RateLimiter limiter = new RateLimiter(1.0, 5);
+        long started = System.nanoTime();
+
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire();
+        }
+
+        assertTrue(elapsedMillis(started) < 500, "burst should not wait");
+        assertEquals(0, limiter.getThrottled());
+    }
+
+    @Test
+    void emptyBucketWaitsForTheRefill() {
+        RateLimiter limiter = new RateLimiter(20.0, 1);
+        limiter.acquire();
+        long started = System.nanoTime();
+
+        limiter.acquire();
+
+        assertTrue(elapsedMillis(started) >= 40, "second token is refilled after ~50 ms");
+        assertEquals(1, limiter.getThrottled());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    void asyncAcquisitionCompletesAfterTheRefill() {
+        RateLimiter limiter = new RateLimiter(20.0, 1);
+        limiter.acquireAsync().join();
+        long started = System.nanoTime();
+
+        limiter.acquireAsync().join();
+
+        assertTrue(elapsedMillis(started) >= 40, "second token is refilled after ~50 ms");
+        assertEquals(1, limiter.getThrottled());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    void rejectsNonPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(Double.NaN, 1));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(1, 0));
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    }
+}
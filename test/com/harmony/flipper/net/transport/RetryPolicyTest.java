@@ -0,0 +1,77 @@
+package com.harmony.flipper.net.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPolicyTest {
+
+    private final RetryPolicy policy = new RetryPolicy(4, Duration.ofMillis(100), Duration.ofSeconds(2));
+
+    @Test
+    void lastAttemptIsNotRetried() {
+        assertEquals(-1L, policy.delayMillis(4, null));
+        assertEquals(-1L, policy.delayMillis(4, "1"));
+        assertEquals(-1L, RetryPolicy.none().delayMillis(1, null));
+    }
+
+    @Test
+    void backoffStaysWithinTheJitteredCeiling() {
+        for (int i = 0; i < 100; i++) {
+            assertBetween(50, 100, policy.delayMillis(1, null));
+            assertBetween(100, 200, policy.delayMillis(2, null));
+            assertBetween(200, 400, policy.delayMillis(3, null));
+        }
+        RetryPolicy capped = new RetryPolicy(10, Duration.ofMillis(100), Duration.ofMillis(300));
+        assertBetween(150, 300, capped.delayMillis(9, null));
+    }
+
+    @Test
+    void retryAfterSecondsWinOverBackoff() {
+        assertEquals(0L, policy.delayMillis(1, "0"));
+        assertEquals(1000L, policy.delayMillis(1, " 1 "));
+        assertEquals(-1L, policy.delayMillis(1, "3"), "longer than maxDelay fails instead of retrying early");
+    }
+
+    @Test
+    void hugeRetryAfterSecondsDoNotOverflowIntoARetry() {
+        assertEquals(-1L, policy.delayMillis(1, "9223372036854776"));
+        assertEquals(-1L, policy.delayMillis(1, Long.toString(Long.MAX_VALUE)));
+        assertEquals(-1L, policy.delayMillis(1, "99999999999999999999"));
+    }
+
+    @Test
+    void retryAfterHttpDateIsHonoured() {
+        String inOneSecond = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(1));
+        String past = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).minusMinutes(1));
+
+        assertBetween(0, 1000, policy.delayMillis(1, inOneSecond));
+        assertEquals(0L, policy.delayMillis(1, past));
+    }
+
+    @Test
+    void unparseableRetryAfterFallsBackToBackoff() {
+        assertBetween(50, 100, policy.delayMillis(1, "soon"));
+    }
+
+    @Test
+    void onlyThrottlingAndServerFailuresAreRetryable() {
+        assertTrue(policy.isRetryable(429));
+        assertTrue(policy.isRetryable(500));
+        assertTrue(policy.isRetryable(503));
+        assertFalse(policy.isRetryable(400));
+        assertFalse(policy.isRetryable(404));
+        assertFalse(policy.isRetryable(501));
+    }
+
+    private static void assertBetween(long min, long max, long actual) {
+        assertTrue(actual >= min && actual <= max, actual + " not in [" + min + ", " + max + "]");
+    }
+}
@@ -0,0 +1,89 @@
+package com.harmony.flipper.net.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String> flight = new SingleFlight<>();
+
+    @Test
+    void concurrentCallersShareOneCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Object result = new Object();
+
+        CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> flight.call("latest", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            awaitQuietly(release);
+            return result;
+        }));
+        started.await();
+        CompletableFuture<Object> second = CompletableFuture.supplyAsync(() -> flight.call("latest", () -> {
+            calls.incrementAndGet();
+            return new Object();
+        }));
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (flight.getSharedCount() < 1) {
+                Thread.onSpinWait();
+            }
+        });
+        release.countDown();
+
+        assertSame(result, first.join());
+        assertSame(result, second.join());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void failureReachesTheCallerAndClearsTheKey() {
+        IllegalStateException failure = new IllegalStateException("boom");
+
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> flight.call("latest", () -> {
+            throw failure;
+        })));
+        assertEquals("again", flight.call("latest", () -> "again"));
+        assertEquals(0, flight.getSharedCount());
+    }
+
+    @Test
+    void asyncCallersShareTheInFlightFuture() {
+        CompletableFuture<String> work = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> first = flight.callAsync("mapping", () -> {
+            calls.incrementAndGet();
+            return work;
+        });
+        CompletableFuture<String> second = flight.callAsync("mapping", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        work.complete("mapping");
+
+        assertEquals("mapping", first.join());
+        assertEquals("mapping", second.join());
+        assertEquals(1, calls.get());
+        assertEquals(1, flight.getSharedCount());
+        assertEquals("next", flight.callAsync("mapping", () -> CompletableFuture.completedFuture("next")).join());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.harmony.flipper.scan;
+
+import com.harmony.flipper.data.ItemMapping;
+import com.harmony.flipper.data.Price;
+import com.harmony.flipper.data.Response;
+import com.harmony.flipper.data.SnapshotDelta;
+import com.harmony.flipper.data.Table;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CandidateIndexTest {
+
+    private static final Table.Limit LIMITS = Table.Limit.of(List.of(
+            mapping(2, 11_000), mapping(4151, 70), mapping(561, 25_000), mapping(11_832, 8)));
+
+    @Test
+    void selectAppliesBothCapsInKeyOrder() {
+        CandidateIndex index = CandidateIndex.of(latest(Map.of(2, 150, 4151, 1_500_000, 561, 200, 11_832, 15_000_000)), LIMITS);
+
+        assertEquals(4, index.size());
+        assertArrayEquals(new int[]{2, 561}, index.select(1_000, Long.MAX_VALUE));
+        assertArrayEquals(new int[]{2}, index.select(Long.MAX_VALUE, 2_000_000));
+        assertArrayEquals(new int[]{2, 561, 4151, 11_832}, index.select(Long.MAX_VALUE, Long.MAX_VALUE));
+        assertArrayEquals(new int[0], index.select(100, Long.MAX_VALUE));
+    }
+
+    @Test
+    void itemsWithoutAPriceAreNotIndexed() {
+        Map<Integer, Price.Latest> data = new HashMap<>();
+        data.put(2, new Price.Latest(160, 1L, 150, 1L));
+        data.put(4151, new Price.Latest(1_500_000, 1L, null, null));
+
+        CandidateIndex index = CandidateIndex.of(Table.Latest.of(Response.Latest.of(data)), LIMITS);
+
+        assertEquals(1, index.size());
+        assertArrayEquals(new int[]{2}, index.select(Long.MAX_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    void deltaMergeMatchesARebuild() {
+        Table.Latest previous = latest(Map.of(2, 150, 4151, 1_500_000, 561, 200));
+        Table.Latest next = latest(Map.of(2, 250, 561, 200, 11_832, 100));
+        CandidateIndex index = CandidateIndex.of(previous, LIMITS);
+
+        CandidateIndex updated = index.update(next, SnapshotDelta.between(previous, next, null, null));
+
+        assertSame(next, updated.getLatest());
+        assertEquals(3, updated.size());
+        assertArrayEquals(new int[]{11_832, 561, 2}, updated.select(Long.MAX_VALUE, Long.MAX_VALUE));
+        assertArrayEquals(new int[]{2, 561, 4151}, index.select(Long.MAX_VALUE, Long.MAX_VALUE), "old index unchanged");
+    }
+
+    @Test
+    void highOnlyChangesKeepTheOrder() {
+        Table.Latest previous = latest(Map.of(2, 150, 561, 200));
+        Map<Integer, Price.Latest> data = new HashMap<>();
+        data.put(2, new Price.Latest(999, 2L, 150, 1L));
+        data.put(561, new Price.Latest(201, 1L, 200, 1L));
+        Table.Latest next = Table.Latest.of(Response.Latest.of(data));
+
+        CandidateIndex updated = CandidateIndex.of(previous, LIMITS).update(next, SnapshotDelta.between(previous, next, null, null));
+
+        assertArrayEquals(new int[]{2, 561}, updated.select(Long.MAX_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    void randomDeltasMatchARebuild() {
+        Random random = new Random(42);
+        List<ItemMapping> mapping = new ArrayList<>();
+        for (int id = 0; id < 500; id++) {
+            mapping.add(mapping(id, random.nextInt(4) == 0 ? null : 1 + random.nextInt(20_000)));
+        }
+        Table.Limit limits = Table.Limit.of(mapping);
+        Map<Integer, Integer> prices = new HashMap<>();
+        for (int id = 0; id < 400; id++) {
+            prices.put(id, 1 + random.nextInt(50_000));
+        }
+        Table.Latest current = latest(prices);
+        CandidateIndex index = CandidateIndex.of(current, limits);
+
+        for (int round = 0; round < 50; round++) {
+            for (int change = 0; change < 20; change++) {
+                int id = random.nextInt(500);
+                if (random.nextInt(5) == 0) {
+                    prices.remove(id);
+                } else {
+                    prices.put(id, 1 + random.nextInt(50_000));
+                }
+            }
+            Table.Latest next = latest(prices);
+            index = index.update(next, SnapshotDelta.between(current, next, null, null));
+            current = next;
+
+            CandidateIndex rebuilt = CandidateIndex.of(next, limits);
+            assertEquals(rebuilt.size(), index.size());
+            for (long cap : new long[]{1_000, 25_000, Long.MAX_VALUE}) {
+                assertArrayEquals(rebuilt.select(cap, Long.MAX_VALUE), index.select(cap, Long.MAX_VALUE));
+                assertArrayEquals(rebuilt.select(Long.MAX_VALUE, cap * 1_000), index.select(Long.MAX_VALUE, cap * 1_000));
+            }
+        }
+    }
+
+    private static Table.Latest latest(Map<Integer, Integer> lows) {
+        Map<Integer, Price.Latest> data = new HashMap<>();
+        lows.forEach((id, low) -> data.put(id, new Price.Latest(low + 10, 1L, low, 1L)));
+        return Table.Latest.of(Response.Latest.of(data));
+    }
+
+    private static ItemMapping mapping(int id, Integer limit) {
+        return new ItemMapping(id, "Item " + id, null, false, null, null, null, limit, null);
+    }
+}
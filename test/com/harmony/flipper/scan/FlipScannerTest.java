@@ -0,0 +1,94 @@
+package com.harmony.flipper.scan;
+
+import com.harmony.flipper.data.ItemMapping;
+import com.harmony.flipper.data.Price;
+import com.harmony.flipper.data.Response;
+import com.harmony.flipper.data.Table;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FlipScannerTest {
+
+    private static final Table.Limit LIMITS = Table.Limit.of(List.of(
+            mapping(2, 11_000), mapping(561, 25_000), mapping(4151, 70), mapping(11_832, null)));
+
+    @Test
+    void ranksByProfitAfterTax() {
+        Table.Latest latest = latest(Map.of(
+                2, new Price.Latest(160, 1L, 150, 1L),
+                561, new Price.Latest(230, 1L, 200, 1L),
+                4151, new Price.Latest(1_560_000, 1L, 1_500_000, 1L)));
+
+        List<Opportunity> ranked = new FlipScanner(FlipScanner.Rank.PROFIT, 5).scan(latest, LIMITS);
+
+        assertEquals(List.of(4151, 561, 2), ids(ranked));
+        Opportunity whip = ranked.get(0);
+        assertEquals(31_200, whip.getTax());
+        assertEquals(1_560_000 - 31_200 - 1_500_000, whip.getProfit());
+        assertEquals(70L * whip.getProfit(), whip.getLimitProfit());
+        assertEquals(160 - 3 - 150, ranked.get(2).getProfit());
+    }
+
+    @Test
+    void rankingByRoiAndLimitProfitChangesTheOrder() {
+        Table.Latest latest = latest(Map.of(
+                2, new Price.Latest(160, 1L, 150, 1L),
+                4151, new Price.Latest(1_560_000, 1L, 1_500_000, 1L)));
+
+        assertEquals(List.of(2, 4151), ids(new FlipScanner(FlipScanner.Rank.ROI, 5).scan(latest, LIMITS)));
+        assertEquals(List.of(4151, 2), ids(new FlipScanner(FlipScanner.Rank.LIMIT_PROFIT, 5).scan(latest, LIMITS)));
+    }
+
+    @Test
+    void itemsWithoutBothPricesOrAMarginAreSkipped() {
+        Map<Integer, Price.Latest> data = new HashMap<>();
+        data.put(2, new Price.Latest(160, 1L, 150, 1L));
+        data.put(561, new Price.Latest(null, null, 200, 1L));
+        data.put(4151, new Price.Latest(1_500_000, 1L, null, null));
+        data.put(11_832, new Price.Latest(102, 1L, 100, 1L));
+
+        List<Opportunity> ranked = new FlipScanner(FlipScanner.Rank.PROFIT, 5).scan(latest(data), LIMITS);
+
+        assertEquals(List.of(2), ids(ranked), "102 pays 2 gp tax on a 2 gp spread");
+    }
+
+    @Test
+    void limitProfitSkipsItemsWithoutALimit() {
+        Table.Latest latest = latest(Map.of(
+                2, new Price.Latest(160, 1L, 150, 1L),
+                11_832, new Price.Latest(30_000_000, 1L, 20_000_000, 1L)));
+
+        List<Opportunity> ranked = new FlipScanner(FlipScanner.Rank.LIMIT_PROFIT, 5).scan(latest, LIMITS);
+
+        assertEquals(List.of(2), ids(ranked));
+        assertEquals(Table.MISSING, new FlipScanner(FlipScanner.Rank.PROFIT, 5).scan(latest, LIMITS).get(0).getLimit());
+    }
+
+    @Test
+    void keepsOnlyTheBestCount() {
+        Table.Latest latest = latest(Map.of(
+                2, new Price.Latest(160, 1L, 150, 1L),
+                561, new Price.Latest(230, 1L, 200, 1L),
+                4151, new Price.Latest(1_560_000, 1L, 1_500_000, 1L)));
+
+        assertEquals(List.of(4151), ids(new FlipScanner(FlipScanner.Rank.PROFIT, 1).scan(latest, LIMITS)));
+    }
+
+    private static Table.Latest latest(Map<Integer, Price.Latest> data) {
+        return Table.Latest.of(Response.Latest.of(data));
+    }
+
+    private static List<Integer> ids(List<Opportunity> ranked) {
+        return ranked.stream().map(Opportunity::getItemId).collect(Collectors.toList());
+    }
+
+    private static ItemMapping mapping(int id, Integer limit) {
+        return new ItemMapping(id, "Item " + id, null, false, null, null, null, limit, null);
+    }
+}
@@ -0,0 +1,32 @@
+package com.harmony.flipper.scan;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GeTaxTest {
+
+    @Test
+    void cheapItemsAreExempt() {
+        assertEquals(0, GeTax.perUnit(1));
+        assertEquals(0, GeTax.perUnit(49));
+        assertEquals(49, GeTax.afterTax(49));
+    }
+
+    @Test
+    void twoPercentIsRoundedDown() {
+        assertEquals(1, GeTax.perUnit(50));
+        assertEquals(1, GeTax.perUnit(99));
+        assertEquals(2, GeTax.perUnit(100));
+        assertEquals(30_000, GeTax.perUnit(1_500_000));
+        assertEquals(1_470_000, GeTax.afterTax(1_500_000));
+    }
+
+    @Test
+    void taxIsCappedPerItem() {
+        assertEquals(4_999_999, GeTax.perUnit(249_999_999));
+        assertEquals(GeTax.CAP_GP, GeTax.perUnit(250_000_000));
+        assertEquals(GeTax.CAP_GP, GeTax.perUnit(Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE - GeTax.CAP_GP, GeTax.afterTax(Integer.MAX_VALUE));
+    }
+}
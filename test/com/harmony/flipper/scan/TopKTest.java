@@ -0,0 +1,85 @@
+package com.harmony.flipper.scan;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopKTest {
+
+    @Test
+    void keepsTheHighestScoresInOrder() {
+        TopK top = new TopK(3);
+        top.offer(1, 10);
+        top.offer(2, 40);
+        top.offer(3, 20);
+        assertEquals(10, top.threshold());
+
+        assertTrue(top.offer(4, 30));
+        assertFalse(top.offer(5, 5), "below the lowest kept score");
+
+        assertEquals(3, top.size());
+        assertArrayEquals(new int[]{2, 4, 3}, top.sortedIds());
+        assertEquals(20, top.threshold());
+        assertTrue(Double.isNaN(top.scoreOf(1)), "evicted");
+    }
+
+    @Test
+    void tiesKeepTheLowerId() {
+        TopK top = new TopK(2);
+        top.offer(7, 1);
+        top.offer(5, 1);
+
+        assertTrue(top.offer(3, 1));
+        assertFalse(top.offer(9, 1));
+
+        assertArrayEquals(new int[]{3, 5}, top.sortedIds());
+    }
+
+    @Test
+    void nanScoresAreIgnored() {
+        TopK top = new TopK(2);
+
+        assertFalse(top.offer(1, Double.NaN));
+
+        assertEquals(0, top.size());
+        assertEquals(Double.NEGATIVE_INFINITY, top.threshold());
+    }
+
+    @Test
+    void mergedHeapsMatchASort() {
+        Random random = new Random(3);
+        double[] scores = new double[2_000];
+        TopK left = new TopK(25);
+        TopK right = new TopK(25);
+        for (int id = 0; id < scores.length; id++) {
+            scores[id] = random.nextInt(500);
+            (id % 2 == 0 ? left : right).offer(id, scores[id]);
+        }
+
+        left.addAll(right);
+
+        int[] expected = IntStream.range(0, scores.length).boxed()
+                .sorted(Comparator.<Integer>comparingDouble(id -> -scores[id]).thenComparingInt(id -> id))
+                .limit(25).mapToInt(Integer::intValue).toArray();
+        assertArrayEquals(expected, left.sortedIds());
+        assertEquals(scores[expected[0]], left.scoreOf(expected[0]));
+    }
+
+    @Test
+    void clearEmptiesTheHeap() {
+        TopK top = new TopK(2);
+        top.offer(1, 1);
+        top.clear();
+
+        assertArrayEquals(new int[0], top.sortedIds());
+        assertThrows(IllegalArgumentException.class, () -> new TopK(0));
+    }
+}
@@ -0,0 +1,115 @@
+package com.harmony.flipper.store;
+
+import com.harmony.flipper.data.Table;
+import com.harmony.flipper.data.Time;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedSeriesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void pointsRoundTripInTimestampOrder() {
+        List<Time.Series> points = List.of(
+                new Time.Series(900, 1_510, 1_490, 7L, 9L),
+                new Time.Series(300, 1_500, 1_480, 5L, 6L),
+                new Time.Series(600, null, 1_485, null, 8L),
+                new Time.Series(4_200, Integer.MAX_VALUE, 1, Long.MAX_VALUE, 0L),
+                new Time.Series(4_500, 1, Integer.MAX_VALUE, 0L, Long.MAX_VALUE));
+
+        CompressedSeries.Cursor cursor = CompressedSeries.encode(points).cursor();
+
+        assertPoint(cursor, 300, 1_500, 1_480, 5, 6);
+        assertPoint(cursor, 600, Table.MISSING, 1_485, Table.MISSING, 8);
+        assertPoint(cursor, 900, 1_510, 1_490, 7, 9);
+        assertPoint(cursor, 4_200, Integer.MAX_VALUE, 1, Long.MAX_VALUE, 0);
+        assertPoint(cursor, 4_500, 1, Integer.MAX_VALUE, 0, Long.MAX_VALUE);
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void regularSpacingCostsAboutOneBytePerField() {
+        List<Time.Series> points = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            points.add(new Time.Series(1_700_000_000L + i * 300L, 1_500 + i % 3, 1_480 - i % 2, 10L, 12L));
+        }
+
+        CompressedSeries series = CompressedSeries.encode(points);
+
+        assertEquals(1_000, series.size());
+        assertTrue(series.sizeInBytes() < 1_000 * 6, series.sizeInBytes() + " bytes");
+    }
+
+    @Test
+    void bytesCanBeWrappedAgain() {
+        List<Time.Series> points = List.of(new Time.Series(300, 10, 9, 1L, 2L), new Time.Series(600, 12, 8, 3L, 4L));
+        byte[] bytes = CompressedSeries.encode(points).toByteArray();
+
+        CompressedSeries wrapped = CompressedSeries.wrap(bytes);
+        bytes[bytes.length - 1] = 0;
+
+        assertEquals(2, wrapped.size());
+        CompressedSeries.Cursor cursor = wrapped.cursor();
+        assertPoint(cursor, 300, 10, 9, 1, 2);
+        assertPoint(cursor, 600, 12, 8, 3, 4);
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void storedRangeEncodesTheSameAsItsPoints() {
+        List<Time.Series> points = List.of(new Time.Series(300, 10, 9, 1L, 2L), new Time.Series(600, null, 8, 3L, null));
+        try (TimeseriesStore store = new TimeseriesStore(directory)) {
+            store.merge(2, Time.Step.FIVE_MINUTES, points);
+
+            CompressedSeries fromRange = CompressedSeries.encode(store.all(2, Time.Step.FIVE_MINUTES));
+
+            assertEquals(CompressedSeries.encode(points).sizeInBytes(), fromRange.sizeInBytes());
+            CompressedSeries.Cursor cursor = fromRange.cursor();
+            assertPoint(cursor, 300, 10, 9, 1, 2);
+            assertPoint(cursor, 600, Table.MISSING, 8, 3, Table.MISSING);
+        }
+    }
+
+    @Test
+    void cursorCanBeResetOntoAnotherSeries() {
+        CompressedSeries first = CompressedSeries.encode(List.of(new Time.Series(300, 10, 9, 1L, 2L)));
+        CompressedSeries second = CompressedSeries.encode(List.of(new Time.Series(3_600, 20, 19, 5L, 6L)));
+        CompressedSeries.Cursor cursor = first.cursor();
+        assertPoint(cursor, 300, 10, 9, 1, 2);
+
+        cursor.reset(second);
+
+        assertPoint(cursor, 3_600, 20, 19, 5, 6);
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void emptyAndInvalidInput() {
+        assertEquals(0, CompressedSeries.encode(List.of()).size());
+        assertFalse(CompressedSeries.encode((List<Time.Series>) null).cursor().next());
+        assertEquals(0, CompressedSeries.wrap(CompressedSeries.encode(List.of()).toByteArray()).size());
+        assertThrows(IllegalArgumentException.class, () -> CompressedSeries.wrap(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> CompressedSeries.wrap(new byte[]{(byte) 0x80, (byte) 0x80}));
+    }
+
+    private static void assertPoint(CompressedSeries.Cursor cursor, long timestamp, int avgHighPrice, int avgLowPrice,
+                                    long highPriceVolume, long lowPriceVolume) {
+        assertTrue(cursor.next());
+        assertEquals(timestamp, cursor.getTimestamp());
+        assertEquals(avgHighPrice, cursor.getAvgHighPrice());
+        assertEquals(avgLowPrice, cursor.getAvgLowPrice());
+        assertEquals(highPriceVolume, cursor.getHighPriceVolume());
+        assertEquals(lowPriceVolume, cursor.getLowPriceVolume());
+    }
+}
@@ -0,0 +1,171 @@
+package com.harmony.flipper.store;
+
+import com.harmony.flipper.data.ItemMapping;
+import com.harmony.flipper.data.Price;
+import com.harmony.flipper.data.Response;
+import com.harmony.flipper.data.Snapshot;
+import com.harmony.flipper.data.Table;
+import com.harmony.flipper.data.Time;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void mappedViewReadsBackEverySection() {
+        Path file = directory.resolve("snapshot.bin");
+        SnapshotFile.write(snapshot(), file);
+
+        SnapshotFile.View view = SnapshotFile.open(file);
+
+        assertEquals(2, view.getLatest().size());
+        assertEquals(160, view.getLatest().getHigh(2));
+        assertEquals(1_700_000_010L, view.getLatest().getLowTime(2));
+        assertEquals(Table.MISSING, view.getLatest().getHigh(4151));
+        assertEquals(1_500_000, view.getLatest().getLow(4151));
+        assertEquals(Table.MISSING, view.getLatest().getHigh(561), "absent id reads as missing");
+
+        assertEquals(1_700_000_000L, view.getFiveMinute().getTimestamp());
+        assertEquals(158, view.getFiveMinute().getAvgHighPrice(2));
+        assertEquals(40L, view.getFiveMinute().getLowPriceVolume(2));
+        assertEquals(12_000L, view.getVolumes().getVolume(2));
+
+        assertTrue(view.getMapping().isMembers(4151));
+        assertFalse(view.getMapping().isMembers(2));
+        assertEquals("Abyssal whip", view.getMapping().getName(4151));
+        assertNull(view.getMapping().getExamine(2));
+        assertEquals(70, view.getMapping().getLimit(4151));
+
+        TimeseriesStore.Range series = view.getTimeseries().getSeries(2);
+        assertEquals(2, series.size());
+        assertEquals(600, series.getTimestamp(1));
+        assertEquals(161, series.getAvgHighPrice(1));
+        assertTrue(view.getTimeseries().getSeries(4151).isEmpty());
+    }
+
+    @Test
+    void heapViewDecodesBackToTheSameSnapshot() {
+        Path file = directory.resolve("snapshot.bin");
+        SnapshotFile.write(snapshot(), file);
+
+        Snapshot decoded = SnapshotFile.read(file).toSnapshot();
+
+        Price.Latest whip = decoded.getLatest().getData().get(4151);
+        assertNull(whip.getHigh());
+        assertEquals(1_500_000, whip.getLow());
+        assertEquals(160, decoded.getLatest().getData().get(2).getHigh());
+        assertEquals(1_700_000_000L, decoded.getFiveMinute().getTimestamp());
+        assertEquals(158, decoded.getFiveMinute().getData().get(2).getAvgHighPrice());
+        assertNull(decoded.getOneHour(), "absent section comes back as null");
+        assertEquals(12_000L, decoded.getVolumes().getData().get(2));
+
+        List<ItemMapping> mapping = decoded.getMapping();
+        assertEquals(2, mapping.size());
+        assertEquals(2, mapping.get(0).getId());
+        assertEquals("Cannonball", mapping.get(0).getName());
+        assertNull(mapping.get(0).getExamine());
+        assertEquals(4151, mapping.get(1).getId());
+        assertEquals(72_000, mapping.get(1).getHighAlch());
+    }
+
+    @Test
+    void emptySectionsStayDistinctFromAbsentOnes() {
+        Path file = directory.resolve("snapshot.bin");
+        SnapshotFile.write(Snapshot.of(Response.Latest.of(Map.of()), null,
+                Response.Aggregate.of(1_699_996_400L, Map.of()), null, null, null), file);
+
+        SnapshotFile.View view = SnapshotFile.read(file);
+        Snapshot decoded = view.toSnapshot();
+
+        assertTrue(view.getLatest().isPresent());
+        assertFalse(view.getFiveMinute().isPresent());
+        assertTrue(decoded.getLatest().getData().isEmpty());
+        assertNull(decoded.getFiveMinute());
+        assertEquals(1_699_996_400L, decoded.getOneHour().getTimestamp());
+        assertTrue(decoded.getOneHour().getData().isEmpty());
+        assertNull(decoded.getVolumes());
+    }
+
+    @Test
+    void rewriteReplacesTheFileWhileAHeapViewIsOpen() {
+        Path file = directory.resolve("snapshot.bin");
+        SnapshotFile.write(snapshot(), file);
+        SnapshotFile.View before = SnapshotFile.read(file);
+
+        SnapshotFile.write(Snapshot.of(null, null, null, null, snapshot().getMapping(), null), file);
+
+        assertEquals(160, before.getLatest().getHigh(2));
+        assertEquals(0, SnapshotFile.read(file).getLatest().size());
+        assertEquals(2, SnapshotFile.read(file).getMapping().size());
+    }
+
+    @Test
+    void concurrentWritesLeaveAWholeFileAndNoTempFiles() throws Exception {
+        Path file = directory.resolve("snapshot.bin");
+        Snapshot snapshot = snapshot();
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                writes.add(writers.submit(() -> SnapshotFile.write(snapshot, file)));
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } finally {
+            writers.shutdown();
+        }
+
+        assertEquals(160, SnapshotFile.read(file).getLatest().getHigh(2));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(file), files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void foreignFileIsRejected() throws IOException {
+        Path file = directory.resolve("snapshot.bin");
+        Files.write(file, new byte[64]);
+
+        assertThrows(UncheckedIOException.class, () -> SnapshotFile.open(file));
+        assertThrows(UncheckedIOException.class, () -> SnapshotFile.read(directory.resolve("missing.bin")));
+    }
+
+    private static Snapshot snapshot() {
+        Response.Latest latest = Response.Latest.of(Map.of(
+                2, new Price.Latest(160, 1_700_000_000L, 150, 1_700_000_010L),
+                4151, new Price.Latest(null, null, 1_500_000, 1_700_000_020L)));
+        Response.Aggregate fiveMinute = Response.Aggregate.of(1_700_000_000L, Map.of(
+                2, new Price.Aggregate(158, 30L, 151, 40L)));
+        Response.Volume volumes = Response.Volume.of(1_700_000_000L, Map.of(2, 12_000L));
+        List<ItemMapping> mapping = List.of(
+                new ItemMapping(4151, "Abyssal whip", "A weapon from the abyss.", true, 48_000, 72_000, 120_001, 70, "Abyssal whip.png"),
+                new ItemMapping(2, "Cannonball", null, false, 2, 3, 5, 11_000, "Cannonball.png"));
+        Map<Integer, Response.Timeseries> timeseries = Map.of(2, Response.Timeseries.of(2, List.of(
+                new Time.Series(300, 159, 150, 10L, 20L),
+                new Time.Series(600, 161, 152, 11L, 21L))));
+        return new Snapshot(latest, fiveMinute, null, volumes, mapping, timeseries);
+    }
+}
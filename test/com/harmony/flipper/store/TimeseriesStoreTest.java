@@ -0,0 +1,222 @@
+package com.harmony.flipper.store;
+
+import com.harmony.flipper.data.Table;
+import com.harmony.flipper.data.Time;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeseriesStoreTest {
+
+    private static final int ITEM = 4151;
+    private static final Time.Step STEP = Time.Step.FIVE_MINUTES;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendedPointsSurviveAReopen() {
+        try (TimeseriesStore store = new TimeseriesStore(directory)) {
+            assertEquals(2, store.merge(ITEM, STEP, List.of(point(600, 1_500), point(300, 1_400))));
+        }
+
+        try (TimeseriesStore store = new TimeseriesStore(directory)) {
+            TimeseriesStore.Range all = store.all(ITEM, STEP);
+            assertEquals(2, all.size());
+            assertEquals(300, all.getTimestamp(0));
+            assertEquals(1_400, all.getAvgHighPrice(0));
+            assertEquals(1_390, all.getAvgLowPrice(0));
+            assertEquals(10, all.getHighPriceVolume(0));
+            assertEquals(600, all.getTimestamp(1));
+        }
+    }
+
+    @Test
+    void knownPointsAreNotAppendedAgain() {
+        try (TimeseriesStore store = new TimeseriesStore(directory)) {
+            store.merge(ITEM, STEP, List.of(point(300, 1_400), point(600, 1_500)));
+
+            assertEquals(0, store.merge(ITEM, STEP, List.of(point(300, 1_400), point(600, 1_500))));
+            assertEquals(1, store.merge(ITEM, STEP, List.of(point(600, 1_500), point(900, 1_600), point(900, 1_600))));
+            assertEquals(3, store.all(ITEM, STEP).size());
+        }
+    }
+
+    @Test
+    void missingValuesReadAsMissing() {
+        try (TimeseriesStore store = new TimeseriesStore(directory)) {
+            store.merge(ITEM, STEP, List.of(new Time.Series(300, null, 1_390, null, 5L)));
+
+            TimeseriesStore.Range all = store.all(ITEM, STEP);
+            assertEquals(Table.MISSING, all.getAvgHighPrice(0));
+            assertEquals(Table.MISSING, all.getHighPriceVolume(0));
+            assertEquals(5, all.getLowPriceVolume(0));
+        }
+    }
+
+    @Test
+    void backfillIsMergedInOrderAndOldRangesStayReadable() {
+        try (TimeseriesStore store = new TimeseriesStore(directory)) {
+            store.merge(ITEM, STEP, List.of(point(300, 1_400), point(900, 1_600)));
+            TimeseriesStore.Range before = store.all(ITEM, STEP);
+
+            assertEquals(2, store.merge(ITEM, STEP, List.of(point(600, 1_500), point(0, 1_300), point(300, 1_400))));
+
+            TimeseriesStore.Range after = store.all(ITEM, STEP);
+            assertEquals(4, after.size());
+            for (int i = 0; i < after.size(); i++) {
+                assertEquals(i * 300L, after.getTimestamp(i));
+                assertEquals(1_300 + i * 100, after.getAvgHighPrice(i));
+            }
+            assertEquals(2, before.size());
+            assertEquals(900, before.getTimestamp(1));
+        }
+        try (TimeseriesStore store = new TimeseriesStore(directory)) {
+            assertEquals(4, store.all(ITEM, STEP).size());
+        }
+    }
+
+    @Test
+    void rangeIsHalfOpen() {
+        try (TimeseriesStore store = new TimeseriesStore(directory)) {
+            store.merge(ITEM, STEP, List.of(point(0, 1), point(300, 2), point(600, 3), point(900, 4)));
+
+            TimeseriesStore.Range range = store.range(ITEM, STEP, 300, 900);
+            assertEquals(2, range.size());
+            assertEquals(300, range.getTimestamp(0));
+            assertEquals(600, range.getTimestamp(1));
+            assertTrue(store.range(ITEM, STEP, 1_000, 2_000).isEmpty());
+            assertTrue(store.range(ITEM, STEP, 600, 600).isEmpty());
+            assertThrows(IndexOutOfBoundsException.class, () -> range.getTimestamp(2));
+        }
+    }
+
+    @Test
+    void tornTailIsCutBackToTheLastWholeRecord() throws IOException {
+        try (TimeseriesStore store = new TimeseriesStore(directory)) {
+            store.merge(ITEM, STEP, List.of(point(300, 1_400), point(600, 1_500)));
+        }
+        Path file = file();
+        Files.write(file, new byte[TimeseriesStore.RECORD_BYTES / 2], StandardOpenOption.APPEND);
+
+        try (TimeseriesStore store = new TimeseriesStore(directory)) {
+            assertEquals(2, store.all(ITEM, STEP).size());
+            assertEquals(TimeseriesStore.HEADER_BYTES + 2L * TimeseriesStore.RECORD_BYTES, Files.size(file));
+
+            assertEquals(1, store.merge(ITEM, STEP, List.of(point(900, 1_600))));
+            assertEquals(900, store.all(ITEM, STEP).getTimestamp(2));
+        }
+    }
+
+    @Test
+    void partialHeaderStartsAnEmptyFile() throws IOException {
+        Path file = file();
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[5]);
+
+        try (TimeseriesStore store = new TimeseriesStore(directory)) {
+            assertTrue(store.all(ITEM, STEP).isEmpty());
+            assertEquals(1, store.merge(ITEM, STEP, List.of(point(300, 1_400))));
+        }
+    }
+
+    @Test
+    void foreignFileIsRejected() throws IOException {
+        Path file = file();
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[TimeseriesStore.HEADER_BYTES]);
+
+        try (TimeseriesStore store = new TimeseriesStore(directory)) {
+            assertThrows(UncheckedIOException.class, () -> store.all(ITEM, STEP));
+        }
+    }
+
+    @Test
+    void refusedReplaceSwitchesToTheOtherFileAndLeavesTheOldOneAlone() throws IOException {
+        TimeseriesStore.Mover refuseMapped = (source, target) -> {
+            if (target.equals(file())) {
+                throw new FileSystemException(target.toString(), null, "in use by another process");
+            }
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        };
+        try (TimeseriesStore store = new TimeseriesStore(directory, refuseMapped)) {
+            store.merge(ITEM, STEP, List.of(point(300, 1_400), point(900, 1_600)));
+            TimeseriesStore.Range before = store.all(ITEM, STEP);
+
+            assertEquals(1, store.merge(ITEM, STEP, List.of(point(600, 1_500))));
+
+            assertEquals(300, before.getTimestamp(0));
+            assertEquals(900, before.getTimestamp(1));
+            assertEquals(3, store.all(ITEM, STEP).size());
+            assertEquals(1, store.merge(ITEM, STEP, List.of(point(1_200, 1_700))));
+        }
+        assertFalse(Files.exists(file()));
+
+        try (TimeseriesStore store = new TimeseriesStore(directory)) {
+            TimeseriesStore.Range all = store.all(ITEM, STEP);
+            assertEquals(4, all.size());
+            assertEquals(600, all.getTimestamp(1));
+            assertEquals(1_200, all.getTimestamp(3));
+        }
+    }
+
+    @Test
+    void longerOfTwoLeftoverFilesWinsOnOpen() throws IOException {
+        Path shorter = directory.resolve("shorter");
+        Path longer = directory.resolve("longer");
+        try (TimeseriesStore store = new TimeseriesStore(shorter)) {
+            store.merge(ITEM, STEP, List.of(point(300, 1_400)));
+        }
+        try (TimeseriesStore store = new TimeseriesStore(longer)) {
+            store.merge(ITEM, STEP, List.of(point(300, 1_400), point(600, 1_500), point(900, 1_600)));
+        }
+        Files.createDirectories(file().getParent());
+        Files.copy(shorter.resolve(STEP.getValue()).resolve(ITEM + ".ts"), file());
+        Files.copy(longer.resolve(STEP.getValue()).resolve(ITEM + ".ts"), file().resolveSibling(ITEM + ".ts.alt"));
+
+        try (TimeseriesStore store = new TimeseriesStore(directory)) {
+            assertEquals(3, store.all(ITEM, STEP).size());
+        }
+        assertFalse(Files.exists(file()), "the shorter leftover is removed");
+    }
+
+    @Test
+    void failedRewriteKeepsTheStoredPoints() throws IOException {
+        TimeseriesStore.Mover refuseAll = (source, target) -> {
+            throw new FileSystemException(target.toString(), null, "in use by another process");
+        };
+        try (TimeseriesStore store = new TimeseriesStore(directory, refuseAll)) {
+            store.merge(ITEM, STEP, List.of(point(300, 1_400), point(900, 1_600)));
+
+            assertThrows(UncheckedIOException.class, () -> store.merge(ITEM, STEP, List.of(point(600, 1_500))));
+
+            assertEquals(2, store.all(ITEM, STEP).size());
+        }
+        try (Stream<Path> files = Files.list(file().getParent())) {
+            assertEquals(List.of(file()), files.collect(Collectors.toList()));
+        }
+    }
+
+    private Path file() {
+        return directory.resolve(STEP.getValue()).resolve(ITEM + ".ts");
+    }
+
+    private static Time.Series point(long timestamp, int avgHighPrice) {
+        return new Time.Series(timestamp, avgHighPrice, avgHighPrice - 10, 10L, 20L);
+    }
+}
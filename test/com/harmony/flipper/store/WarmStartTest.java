@@ -0,0 +1,109 @@
+package com.harmony.flipper.store;
+
+import com.harmony.flipper.data.ItemMapping;
+import com.harmony.flipper.data.Price;
+import com.harmony.flipper.data.Response;
+import com.harmony.flipper.data.Snapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WarmStartTest {
+
+    private static final long PRICED_AT = 1_700_000_000L;
+    private static final Duration MAX_AGE = Duration.ofMinutes(30);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recentSnapshotLoadsWithItsPrices() {
+        Path file = directory.resolve("nested").resolve("warm-start.hfsn");
+        new WarmStart(file).save(snapshot(true));
+
+        Snapshot loaded = at(file, PRICED_AT + MAX_AGE.getSeconds()).load();
+
+        assertNotNull(loaded);
+        assertEquals(160, loaded.getLatest().getData().get(2).getHigh());
+        assertEquals(1, loaded.getMapping().size());
+    }
+
+    @Test
+    void staleSnapshotLoadsOnlyItsMapping() {
+        Path file = directory.resolve("warm-start.hfsn");
+        new WarmStart(file).save(snapshot(true));
+
+        Snapshot loaded = at(file, PRICED_AT + MAX_AGE.getSeconds() + 1).load();
+
+        assertNotNull(loaded);
+        assertNull(loaded.getLatest());
+        assertNull(loaded.getFiveMinute());
+        assertEquals("Cannonball", loaded.getMapping().get(0).getName());
+    }
+
+    @Test
+    void staleSnapshotWithoutMappingIsNotLoaded() {
+        Path file = directory.resolve("warm-start.hfsn");
+        new WarmStart(file).save(snapshot(false));
+
+        assertNull(at(file, PRICED_AT + MAX_AGE.getSeconds() + 1).load());
+    }
+
+    @Test
+    void bucketCloseCountsAsThePriceTime() {
+        Snapshot snapshot = Snapshot.of(null, Response.Aggregate.of(PRICED_AT, Map.of(2, new Price.Aggregate(158, 1L, 151, 1L))),
+                null, null, null, null);
+
+        assertEquals(PRICED_AT + 300, WarmStart.pricedAt(snapshot));
+    }
+
+    @Test
+    void missingFileIsNotLoaded() {
+        assertNull(at(directory.resolve("absent.hfsn"), PRICED_AT).load());
+    }
+
+    @Test
+    void truncatedFileIsNotLoaded() throws IOException {
+        Path file = directory.resolve("warm-start.hfsn");
+        new WarmStart(file).save(snapshot(true));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertNull(at(file, PRICED_AT).load());
+    }
+
+    @Test
+    void corruptFileIsNotLoaded() throws IOException {
+        Path file = directory.resolve("warm-start.hfsn");
+        Files.write(file, "not a snapshot at all, just some text that is long enough".getBytes());
+
+        assertNull(at(file, PRICED_AT).load());
+    }
+
+    private static WarmStart at(Path file, long epochSecond) {
+        return new WarmStart(file, MAX_AGE, Clock.fixed(Instant.ofEpochSecond(epochSecond), ZoneOffset.UTC));
+    }
+
+    private static Snapshot snapshot(boolean withMapping) {
+        Response.Latest latest = Response.Latest.of(Map.of(2, new Price.Latest(160, PRICED_AT - 60, 150, PRICED_AT)));
+        Response.Aggregate fiveMinute = Response.Aggregate.of(PRICED_AT - 600, Map.of(2, new Price.Aggregate(158, 30L, 151, 40L)));
+        List<ItemMapping> mapping = withMapping
+                ? List.of(new ItemMapping(2, "Cannonball", null, false, 2, 3, 5, 11_000, null))
+                : null;
+        return Snapshot.of(latest, fiveMinute, null, null, mapping, null);
+    }
+}
@@ -0,0 +1,271 @@
+package com.harmony.flipper.testkit;
+
+import com.harmony.flipper.data.Time;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Payloads shaped like the wiki price API responses.
+ * <p>
+ * When the {@code fixtures.dir} system property points at a directory holding recorded bodies
+ * ({@code latest.json}, {@code 5m.json}, {@code 1h.json}, {@code volumes.json}, {@code mapping.json},
+ * {@code timeseries.json}) those are served verbatim; otherwise deterministic synthetic bodies for
+ * {@code itemCount} items are generated.
+ */
+public final class Fixtures {
+
+    public static final int DEFAULT_ITEM_COUNT = 4_000;
+    public static final long DEFAULT_TIMESTAMP = 1_700_000_000L;
+    private static final int[] LIMITS = {8, 40, 70, 100, 125, 500, 1_000, 2_000, 6_000, 10_000, 13_000, 25_000};
+
+    private final int itemCount;
+    private final Path recordedDir;
+    private final byte[] latest;
+    private final byte[] fiveMinute;
+    private final byte[] oneHour;
+    private final byte[] volumes;
+    private final byte[] mapping;
+
+    public Fixtures(int itemCount) {
+        this(itemCount, recordedDirFromProperty());
+    }
+
+    public Fixtures(int itemCount, Path recordedDir) {
+        if (itemCount <= 0) {
+            throw new IllegalArgumentException("itemCount must be positive");
+        }
+        this.itemCount = itemCount;
+        this.recordedDir = recordedDir;
+        this.latest = recordedOr("latest.json", () -> latestJson(itemCount));
+        this.fiveMinute = recordedOr("5m.json", () -> aggregateJson(itemCount, DEFAULT_TIMESTAMP - DEFAULT_TIMESTAMP % 300, 1));
+        this.oneHour = recordedOr("1h.json", () -> aggregateJson(itemCount, DEFAULT_TIMESTAMP - DEFAULT_TIMESTAMP % 3_600, 12));
+        this.volumes = recordedOr("volumes.json", () -> volumesJson(itemCount));
+        this.mapping = recordedOr("mapping.json", () -> mappingJson(itemCount));
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Item id of the {@code index}-th synthetic item; ids are spread over the same range as real ids.
+     */
+    public static int itemId(int index) {
+        return 2 + index * 7;
+    }
+
+    public byte[] latest() {
+        return latest;
+    }
+
+    public byte[] fiveMinute() {
+        return fiveMinute;
+    }
+
+    public byte[] oneHour() {
+        return oneHour;
+    }
+
+    public byte[] volumes() {
+        return volumes;
+    }
+
+    public byte[] mapping() {
+        return mapping;
+    }
+
+    public byte[] timeseries(int itemId, Time.Step step) {
+        return recordedOr("timeseries.json", () -> timeseriesJson(itemId, step, 365));
+    }
+
+    /**
+     * Body for an API path such as {@code latest} or {@code timeseries?id=2&timestep=5m}, or {@code null}
+     * when the path is not one the API serves.
+     */
+    public byte[] forPath(String endpoint, String query) {
+        switch (endpoint) {
+            case "latest":
+                return latest;
+            case "5m":
+                return fiveMinute;
+            case "1h":
+                return oneHour;
+            case "volumes":
+                return volumes;
+            case "mapping":
+                return mapping;
+            case "timeseries":
+                return timeseries(queryInt(query, "id", itemId(0)), queryStep(query));
+            default:
+                return null;
+        }
+    }
+
+    private byte[] recordedOr(String name, Supplier<String> synthetic) {
+        if (recordedDir != null) {
+            Path file = recordedDir.resolve(name);
+            if (Files.isRegularFile(file)) {
+                try {
+                    return Files.readAllBytes(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return synthetic.get().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Path recordedDirFromProperty() {
+        String dir = System.getProperty("fixtures.dir");
+        return dir == null || dir.isBlank() ? null : Paths.get(dir);
+    }
+
+    private static String latestJson(int itemCount) {
+        Random random = new Random(1L);
+        StringBuilder json = new StringBuilder(itemCount * 80).append("{\"data\":{");
+        for (int i = 0; i < itemCount; i++) {
+            int price = basePrice(i);
+            long time = DEFAULT_TIMESTAMP - random.nextInt(86_400);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(itemId(i)).append("\":{");
+            // Roughly one item in twenty has only traded on one side recently.
+            if (random.nextInt(20) == 0) {
+                json.append("\"high\":null,\"highTime\":null,");
+            } else {
+                json.append("\"high\":").append(price + spread(price, random)).append(",\"highTime\":").append(time).append(',');
+            }
+            json.append("\"low\":").append(price).append(",\"lowTime\":").append(time - random.nextInt(600)).append('}');
+        }
+        return json.append("}}").toString();
+    }
+
+    private static String aggregateJson(int itemCount, long timestamp, int volumeScale) {
+        Random random = new Random(timestamp);
+        StringBuilder json = new StringBuilder(itemCount * 100)
+                .append("{\"data\":{");
+        for (int i = 0; i < itemCount; i++) {
+            int price = basePrice(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(itemId(i)).append("\":{");
+            if (random.nextInt(4) == 0) {
+                json.append("\"avgHighPrice\":null,\"highPriceVolume\":0,");
+            } else {
+                json.append("\"avgHighPrice\":").append(price + spread(price, random))
+                        .append(",\"highPriceVolume\":").append(1 + random.nextInt(200) * volumeScale).append(',');
+            }
+            json.append("\"avgLowPrice\":").append(price)
+                    .append(",\"lowPriceVolume\":").append(1 + random.nextInt(200) * volumeScale).append('}');
+        }
+        return json.append("},\"timestamp\":").append(timestamp).append('}').toString();
+    }
+
+    private static String volumesJson(int itemCount) {
+        Random random = new Random(2L);
+        StringBuilder json = new StringBuilder(itemCount * 20)
+                .append("{\"timestamp\":").append(DEFAULT_TIMESTAMP * 1000L).append(",\"data\":{");
+        for (int i = 0; i < itemCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(itemId(i)).append("\":").append(random.nextInt(5_000_000));
+        }
+        return json.append("}}").toString();
+    }
+
+    private static String mappingJson(int itemCount) {
+        Random random = new Random(3L);
+        StringBuilder json = new StringBuilder(itemCount * 200).append('[');
+        for (int i = 0; i < itemCount; i++) {
+            int id = itemId(i);
+            int value = Math.max(1, basePrice(i) / 2);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"examine\":\"A synthetic item used for benchmarking number ").append(id).append(".\"")
+                    .append(",\"id\":").append(id)
+                    .append(",\"members\":").append(random.nextBoolean())
+                    .append(",\"lowalch\":").append(value * 2 / 5);
+            if (random.nextInt(10) != 0) {
+                json.append(",\"limit\":").append(LIMITS[random.nextInt(LIMITS.length)]);
+            }
+            json.append(",\"value\":").append(value)
+                    .append(",\"highalch\":").append(value * 3 / 5)
+                    .append(",\"icon\":\"Synthetic item ").append(id).append(".png\"")
+                    .append(",\"name\":\"Synthetic item ").append(id).append("\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static String timeseriesJson(int itemId, Time.Step step, int points) {
+        Random random = new Random(itemId * 31L + step.ordinal());
+        long end = DEFAULT_TIMESTAMP - DEFAULT_TIMESTAMP % step.getSeconds();
+        int price = 100 + (itemId * 37) % 50_000;
+        StringBuilder json = new StringBuilder(points * 110).append("{\"data\":[");
+        for (int i = 0; i < points; i++) {
+            long timestamp = end - (long) (points - 1 - i) * step.getSeconds();
+            price = Math.max(1, price + random.nextInt(11) - 5);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"timestamp\":").append(timestamp)
+                    .append(",\"avgHighPrice\":").append(price + spread(price, random))
+                    .append(",\"avgLowPrice\":").append(price)
+                    .append(",\"highPriceVolume\":").append(random.nextInt(500))
+                    .append(",\"lowPriceVolume\":").append(random.nextInt(500)).append('}');
+        }
+        return json.append("],\"itemId\":").append(itemId).append('}').toString();
+    }
+
+    private static int basePrice(int index) {
+        // Log-uniform between 1 gp and roughly 2b gp, like the real item universe.
+        double exponent = (index * 0.6180339887) % 1.0 * 9.3;
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE / 2, Math.pow(10, exponent)));
+    }
+
+    private static int spread(int price, Random random) {
+        return 1 + random.nextInt(Math.max(1, price / 50));
+    }
+
+    private static int queryInt(String query, String key, int fallback) {
+        String value = queryValue(query, key);
+        try {
+            return value == null ? fallback : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static Time.Step queryStep(String query) {
+        String value = queryValue(query, "timestep");
+        for (Time.Step step : Time.Step.values()) {
+            if (step.getValue().equals(value)) {
+                return step;
+            }
+        }
+        return Time.Step.FIVE_MINUTES;
+    }
+
+    private static String queryValue(String query, String key) {
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int split = pair.indexOf('=');
+            if (split > 0 && pair.substring(0, split).equals(key)) {
+                return pair.substring(split + 1);
+            }
+        }
+        return null;
+    }
+}
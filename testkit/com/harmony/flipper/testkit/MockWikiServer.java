@@ -0,0 +1,396 @@
+package com.harmony.flipper.testkit;
+
+import com.google.gson.GsonBuilder;
+import com.harmony.flipper.net.transport.OsrsWikiTransport;
+import com.harmony.flipper.net.transport.RetryPolicy;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the wiki price API that serves {@link Fixtures} over real sockets, for load tests,
+ * transport benchmarks and unit tests that must not touch prices.runescape.wiki.
+ * <p>
+ * Bodies set with {@link #body} replace the fixture for that endpoint, and the server built with no fixtures
+ * serves only those. Tests can also fail the next requests, hold an endpoint's requests until released, and
+ * count requests per endpoint.
+ * <p>
+ * Responses carry an {@code ETag} and honour {@code If-None-Match}, and are gzipped when the client accepts
+ * it. Latency and error injection can be changed while the server runs: every request is delayed by the base
+ * latency plus up to the jitter, and then answered with 429 (with {@code Retry-After}) or 503 at the given rates.
+ * <p>
+ * Standalone: {@code java ... MockWikiServer port=8080 items=40000 latencyMs=50 jitterMs=20 rate429=0.01 rate5xx=0.005};
+ * {@code -Dfixtures.dir} serves recorded bodies instead of synthetic ones.
+ */
+public final class MockWikiServer implements AutoCloseable {
+
+    private static final String BASE_PATH = "/api/v1/osrs/";
+
+    private final Fixtures fixtures;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Encoded> encoded = new ConcurrentHashMap<>();
+    private final Map<String, Encoded> bodies = new ConcurrentHashMap<>();
+    private final Queue<int[]> failures = new ConcurrentLinkedQueue<>();
+    private final Map<String, CountDownLatch> holds = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> endpointRequests = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> conditionalRequests = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private volatile long latencyNanos;
+    private volatile long jitterNanos;
+    private volatile double throttleRate;
+    private volatile double serverErrorRate;
+    private volatile int retryAfterSeconds = 1;
+
+    /**
+     * Server on any free port that answers only the endpoints given a {@link #body}.
+     */
+    public MockWikiServer() {
+        this(null, 0);
+    }
+
+    /**
+     * @param fixtures bodies for endpoints not given a {@link #body}, or {@code null} to answer those with 404
+     * @param port     port to bind on the loopback interface, or 0 for any free port
+     */
+    public MockWikiServer(Fixtures fixtures, int port) {
+        this.fixtures = fixtures;
+        try {
+            this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1_024);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        AtomicInteger threads = new AtomicInteger();
+        // Unbounded so injected latency delays requests rather than queueing them behind each other.
+        this.executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "mock-wiki-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(BASE_PATH, this::handle);
+    }
+
+    public MockWikiServer start() {
+        server.start();
+        return this;
+    }
+
+    /**
+     * Base URI to hand to {@code OsrsWikiTransport} in place of the live API.
+     */
+    public URI getBaseUri() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + BASE_PATH);
+    }
+
+    /**
+     * Transport with the default client pointed at this server.
+     */
+    public OsrsWikiTransport transport(RetryPolicy retryPolicy) {
+        return new OsrsWikiTransport(HttpClient.newHttpClient(), new GsonBuilder().serializeNulls().create(),
+                getBaseUri(), "HarmonyFlipper-test", Duration.ofSeconds(5), null, retryPolicy);
+    }
+
+    /**
+     * Serves {@code json} for {@code endpoint}, whatever its query, in place of the fixture.
+     */
+    public MockWikiServer body(String endpoint, String json) {
+        bodies.put(endpoint, new Encoded(json.getBytes(StandardCharsets.UTF_8)));
+        return this;
+    }
+
+    /**
+     * Answers the next request with {@code status}, sending {@code Retry-After} when it is not negative.
+     */
+    public MockWikiServer failNext(int status, int retryAfterSeconds) {
+        failures.add(new int[]{status, retryAfterSeconds});
+        return this;
+    }
+
+    /**
+     * Parks requests for {@code endpoint} until {@link #release} is called for it.
+     */
+    public MockWikiServer hold(String endpoint) {
+        holds.putIfAbsent(endpoint, new CountDownLatch(1));
+        return this;
+    }
+
+    public void release(String endpoint) {
+        CountDownLatch latch = holds.remove(endpoint);
+        if (latch != null) {
+            latch.countDown();
+        }
+    }
+
+    public void setLatency(Duration base, Duration jitter) {
+        latencyNanos = base.toNanos();
+        jitterNanos = jitter.toNanos();
+    }
+
+    /**
+     * Fractions of requests, each between 0 and 1, answered with 429 and 503 instead of a body.
+     */
+    public void setErrorRates(double throttleRate, double serverErrorRate) {
+        if (!(throttleRate >= 0 && serverErrorRate >= 0 && throttleRate + serverErrorRate <= 1)) {
+            throw new IllegalArgumentException("error rates must be between 0 and 1 and sum to at most 1");
+        }
+        this.throttleRate = throttleRate;
+        this.serverErrorRate = serverErrorRate;
+    }
+
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getRequests(String endpoint) {
+        return count(endpointRequests, endpoint);
+    }
+
+    /**
+     * Requests for {@code endpoint} that carried {@code If-None-Match}.
+     */
+    public long getConditionalRequests(String endpoint) {
+        return count(conditionalRequests, endpoint);
+    }
+
+    public long getNotModified() {
+        return notModified.get();
+    }
+
+    public long getInjectedErrors() {
+        return injectedErrors.get();
+    }
+
+    /**
+     * Body bytes written, after compression.
+     */
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.incrementAndGet();
+            URI uri = exchange.getRequestURI();
+            String endpoint = uri.getPath().substring(BASE_PATH.length());
+            Headers request = exchange.getRequestHeaders();
+            increment(endpointRequests, endpoint);
+            if (request.containsKey("If-None-Match")) {
+                increment(conditionalRequests, endpoint);
+            }
+            delay();
+            await(holds.get(endpoint));
+
+            int[] failure = failures.poll();
+            if (failure != null) {
+                injectedErrors.incrementAndGet();
+                if (failure[1] >= 0) {
+                    exchange.getResponseHeaders().set("Retry-After", Integer.toString(failure[1]));
+                }
+                send(exchange, failure[0], "Injected failure");
+                return;
+            }
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < throttleRate) {
+                injectedErrors.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", Integer.toString(retryAfterSeconds));
+                send(exchange, 429, "Too Many Requests");
+                return;
+            }
+            if (roll < throttleRate + serverErrorRate) {
+                injectedErrors.incrementAndGet();
+                send(exchange, 503, "Service Unavailable");
+                return;
+            }
+
+            String query = uri.getRawQuery();
+            String key = query == null ? endpoint : endpoint + '?' + query;
+            Encoded body = bodies.get(endpoint);
+            if (body == null) {
+                body = encoded.get(key);
+            }
+            if (body == null) {
+                byte[] raw = fixtures == null ? null : fixtures.forPath(endpoint, query);
+                if (raw == null) {
+                    send(exchange, 404, "Not Found");
+                    return;
+                }
+                body = new Encoded(raw);
+                Encoded raced = encoded.putIfAbsent(key, body);
+                body = raced != null ? raced : body;
+            }
+
+            Headers response = exchange.getResponseHeaders();
+            response.set("ETag", body.etag);
+            if (body.etag.equals(request.getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            response.set("Content-Type", "application/json");
+            String accept = request.getFirst("Accept-Encoding");
+            byte[] payload = body.identity;
+            if (accept != null && accept.contains("gzip")) {
+                response.set("Content-Encoding", "gzip");
+                payload = body.gzip();
+            }
+            exchange.sendResponseHeaders(200, payload.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(payload);
+            }
+            bytesSent.addAndGet(payload.length);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void delay() {
+        long nanos = latencyNanos;
+        long jitter = jitterNanos;
+        if (jitter > 0) {
+            nanos += ThreadLocalRandom.current().nextLong(jitter + 1);
+        }
+        if (nanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        if (latch == null) {
+            return;
+        }
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void increment(Map<String, AtomicLong> counts, String endpoint) {
+        counts.computeIfAbsent(endpoint, ignored -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static long count(Map<String, AtomicLong> counts, String endpoint) {
+        AtomicLong count = counts.get(endpoint);
+        return count == null ? 0L : count.get();
+    }
+
+    private static void send(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int port = 8080;
+        int items = Fixtures.DEFAULT_ITEM_COUNT;
+        long latencyMs = 0;
+        long jitterMs = 0;
+        double rate429 = 0;
+        double rate5xx = 0;
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            String value = arg.substring(split + 1);
+            switch (arg.substring(0, split)) {
+                case "port":
+                    port = Integer.parseInt(value);
+                    break;
+                case "items":
+                    items = Integer.parseInt(value);
+                    break;
+                case "latencyMs":
+                    latencyMs = Long.parseLong(value);
+                    break;
+                case "jitterMs":
+                    jitterMs = Long.parseLong(value);
+                    break;
+                case "rate429":
+                    rate429 = Double.parseDouble(value);
+                    break;
+                case "rate5xx":
+                    rate5xx = Double.parseDouble(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        MockWikiServer server = new MockWikiServer(new Fixtures(items), port);
+        server.setLatency(Duration.ofMillis(latencyMs), Duration.ofMillis(jitterMs));
+        server.setErrorRates(rate429, rate5xx);
+        server.start();
+        System.out.println("Serving " + items + " items at " + server.getBaseUri());
+        Thread.currentThread().join();
+    }
+
+    private static final class Encoded {
+        private final byte[] identity;
+        private final String etag;
+        private volatile byte[] gzip;
+
+        private Encoded(byte[] identity) {
+            this.identity = identity;
+            this.etag = "\"" + Integer.toHexString(Arrays.hashCode(identity)) + "-" + identity.length + "\"";
+        }
+
+        private byte[] gzip() {
+            byte[] compressed = gzip;
+            if (compressed == null) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(identity.length / 4 + 64);
+                try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+                    out.write(identity);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                compressed = buffer.toByteArray();
+                gzip = compressed;
+            }
+            return compressed;
+        }
+    }
+}